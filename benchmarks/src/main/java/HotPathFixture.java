@@ -0,0 +1,190 @@
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import bench.HotPaths;
+
+/**
+ * The {@code HotPathFixture} class sets up one board for the benchmarks and
+ * runs the hot paths on it. The AI snake winds across the board from the top
+ * left corner, row after row, so any length up to the rows left free fits;
+ * the player snake lies below it and the fruit is in the bottom right corner.
+ *
+ */
+public class HotPathFixture implements HotPaths {
+
+    /**
+     * The seed of the games and of the random moves, so every run measures the same work.
+     */
+    private static final long SEED = 42L;
+
+    /**
+     * The row of the player snake, under the longest AI snake we build.
+     */
+    private static final int PLAYER_ROW = BoardPanel.ROW_COUNT - 2;
+
+    private final GameEngine aStarEngine;
+    private final GameEngine idAStarEngine;
+    private final GameEngine mctsEngine;
+
+    /**
+     * The A* start state and the direction of its first free neighbour.
+     */
+    private final GameEngine.GameState start;
+    private final Direction freeDirection;
+
+    /**
+     * The MCTS state of the position, and the state random moves are played on.
+     */
+    private final State state;
+    private final State scratch;
+
+    /**
+     * Keeps the random moves out of pockets, as in the playouts.
+     */
+    private final Reachability reachability = new Reachability();
+    private final SplittableRandom random = new SplittableRandom(SEED);
+
+    /**
+     * A node with four visited children, for the UCB selection.
+     */
+    private final NodePool nodes = new NodePool(8);
+    private final int parent;
+
+    public HotPathFixture(int snakeLength) {
+        // The solvers log their progress; nothing is logged while measuring
+        Log.setLevel(Log.Level.OFF);
+        List<Point> aiSnake = windingSnake(snakeLength);
+        List<Point> playerSnake = new ArrayList<>();
+        for (int x = 4; x >= 0; x--) {
+            playerSnake.add(new Point(x, PLAYER_ROW));
+        }
+        int fruitX = BoardPanel.COL_COUNT - 1;
+        int fruitY = BoardPanel.ROW_COUNT - 1;
+
+        aStarEngine = newEngine(SolverMode.AStar, aiSnake, playerSnake, fruitX, fruitY);
+        idAStarEngine = newEngine(SolverMode.idAstar, aiSnake, playerSnake, fruitX, fruitY);
+        mctsEngine = newEngine(SolverMode.MCTS, aiSnake, playerSnake, fruitX, fruitY);
+
+        start = new GameEngine.GameState(aStarEngine, 0, 0);
+        freeDirection = firstFreeDirection(aStarEngine.getBoard(), aiSnake.get(0));
+
+        state = new State();
+        state.board = mctsEngine.getBoard();
+        state.snake = SnakeBuffer.of(aiSnake);
+        state.playerSnake = SnakeBuffer.of(playerSnake);
+        state.isAI = true;
+        scratch = new State(state);
+
+        parent = nodes.newNode(NodePool.NONE, 0, true, 0);
+        int first = nodes.reserveChildren(4);
+        for (int i = 0; i < 4; i++) {
+            int child = nodes.newNode(parent, i, false, 0);
+            nodes.addStatistics(child, 10 + i * 7, (i - 1) * 13.5);
+            nodes.setChild(first + i, child);
+        }
+        nodes.publishChildren(parent, first, 4);
+        nodes.addStatistics(parent, 82, 0);
+    }
+
+    /**
+     * Builds a snake that fills the board row by row from the top left
+     * corner, turning at each side. The head is the last cell laid.
+     * @param length The number of cells.
+     * @return The points of the snake, head first.
+     */
+    private static List<Point> windingSnake(int length) {
+        if (length > PLAYER_ROW * BoardPanel.COL_COUNT)
+            throw new IllegalArgumentException("The snake does not fit above the player: " + length);
+        List<Point> tailFirst = new ArrayList<>(length);
+        for (int i = 0; i < length; i++) {
+            int y = i / BoardPanel.COL_COUNT;
+            int column = i % BoardPanel.COL_COUNT;
+            int x = y % 2 == 0 ? column : BoardPanel.COL_COUNT - 1 - column;
+            tailFirst.add(new Point(x, y));
+        }
+        List<Point> headFirst = new ArrayList<>(length);
+        for (int i = length - 1; i >= 0; i--) {
+            headFirst.add(tailFirst.get(i));
+        }
+        return headFirst;
+    }
+
+    private static GameEngine newEngine(SolverMode mode, List<Point> aiSnake, List<Point> playerSnake,
+                                        int fruitX, int fruitY) {
+        GameEngine engine = new GameEngine(mode);
+        engine.setSeed(SEED);
+        engine.reset();
+        engine.loadPosition(aiSnake, playerSnake, fruitX, fruitY);
+        return engine;
+    }
+
+    private static Direction firstFreeDirection(Board board, Point head) {
+        for (Direction direction : Direction.values()) {
+            int x = head.x;
+            int y = head.y;
+            switch (direction) {
+                case North:
+                    y--;
+                    break;
+                case South:
+                    y++;
+                    break;
+                case West:
+                    x--;
+                    break;
+                case East:
+                    x++;
+                    break;
+            }
+            if (Bitboard.inBoard(x, y) && board.getTile(x, y) != TileType.SnakeBody)
+                return direction;
+        }
+        throw new IllegalStateException("The fixture snake is walled in");
+    }
+
+    @Override
+    public long aStar() {
+        aStarEngine.AStar();
+        return aStarEngine.getClosedSetHits();
+    }
+
+    @Override
+    public long idAStar() {
+        idAStarEngine.idAStar();
+        return idAStarEngine.getClosedSetHits();
+    }
+
+    @Override
+    public long mctsIterations(int iterations) {
+        return mctsEngine.searchCurrentPosition(iterations);
+    }
+
+    @Override
+    public long randomPlay() {
+        scratch.copyFrom(state);
+        scratch.playRandomMove(random, reachability);
+        return scratch.snake.peekFirst();
+    }
+
+    @Override
+    public long checkStatus() {
+        return state.checkStatus();
+    }
+
+    @Override
+    public long neighbors() {
+        return aStarEngine.neighbors(start).size();
+    }
+
+    @Override
+    public long generateNeighbor() {
+        return aStarEngine.generateNeighbor(start, freeDirection).key;
+    }
+
+    @Override
+    public long findBestNodeWithUCB() {
+        return UCB.findBestNodeWithUCB(nodes, parent);
+    }
+}
@@ -0,0 +1,78 @@
+package bench;
+
+/**
+ * The {@code HotPaths} interface is how the benchmarks reach the game. The
+ * game classes are in the default package, which JMH does not accept for
+ * benchmarks and which a named package can not import, so a fixture in the
+ * default package implements this interface and is loaded by name.
+ *
+ * Every method runs one operation on the fixture's position and returns a
+ * value for the benchmark to consume, so the work can not be optimised away.
+ *
+ */
+public interface HotPaths {
+
+    /**
+     * Plans a path to the fruit with A*.
+     * @return The number of closed set hits so far.
+     */
+    long aStar();
+
+    /**
+     * Plans a path to the fruit with iterative deepening A*.
+     * @return The number of closed set hits so far.
+     */
+    long idAStar();
+
+    /**
+     * Grows a new MCTS tree from the position.
+     * @param iterations The number of select/expand/simulate/backpropagate cycles.
+     * @return The number of nodes in the tree.
+     */
+    long mctsIterations(int iterations);
+
+    /**
+     * Restores the position and plays one random move on it.
+     * @return The new head cell.
+     */
+    long randomPlay();
+
+    /**
+     * Checks whether the position is over.
+     * @return The status.
+     */
+    long checkStatus();
+
+    /**
+     * Generates the A* successors of the position.
+     * @return The number of successors.
+     */
+    long neighbors();
+
+    /**
+     * Generates one A* successor of the position.
+     * @return The hash of the successor.
+     */
+    long generateNeighbor();
+
+    /**
+     * Picks the child of a four-child MCTS node with UCB.
+     * @return The chosen child.
+     */
+    long findBestNodeWithUCB();
+
+    /**
+     * Creates the fixture for a snake length.
+     * @param snakeLength The number of cells of the AI snake.
+     * @return The fixture.
+     */
+    static HotPaths create(int snakeLength) {
+        try {
+            return (HotPaths) Class.forName("HotPathFixture")
+                    .getConstructor(int.class)
+                    .newInstance(snakeLength);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Can not create the benchmark fixture", e);
+        }
+    }
+}
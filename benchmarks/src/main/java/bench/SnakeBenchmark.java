@@ -0,0 +1,104 @@
+package bench;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@code SnakeBenchmark} class measures the hot paths of the solvers
+ * one at a time, on boards with a short, a medium and a nearly board-filling
+ * AI snake. Run with {@code -prof gc} to get the allocation rate as well.
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnakeBenchmark {
+
+    /**
+     * The number of MCTS iterations per operation of {@link #mctsIterations()}.
+     */
+    private static final int MCTS_ITERATIONS = 256;
+
+    /**
+     * The length of the AI snake: 5, 100 or 550 cells of the 625.
+     */
+    @Param({"short", "medium", "nearFull"})
+    public String snake;
+
+    private HotPaths fixture;
+
+    @Setup
+    public void setUp() {
+        int length;
+        switch (snake) {
+            case "short":
+                length = 5;
+                break;
+            case "medium":
+                length = 100;
+                break;
+            case "nearFull":
+                length = 550;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown snake fixture: " + snake);
+        }
+        fixture = HotPaths.create(length);
+    }
+
+    @Benchmark
+    public long aStar() {
+        return fixture.aStar();
+    }
+
+    @Benchmark
+    public long idAStar() {
+        return fixture.idAStar();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MCTS_ITERATIONS)
+    public long mctsIterations() {
+        return fixture.mctsIterations(MCTS_ITERATIONS);
+    }
+
+    @Benchmark
+    public long randomPlay() {
+        return fixture.randomPlay();
+    }
+
+    @Benchmark
+    public long checkStatus() {
+        return fixture.checkStatus();
+    }
+
+    @Benchmark
+    public long neighbors() {
+        return fixture.neighbors();
+    }
+
+    @Benchmark
+    public long generateNeighbor() {
+        return fixture.generateNeighbor();
+    }
+
+    @Benchmark
+    public long findBestNodeWithUCB() {
+        return fixture.findBestNodeWithUCB();
+    }
+}
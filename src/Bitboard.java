@@ -0,0 +1,195 @@
+/**
+ * The {@code Bitboard} class is a compact occupancy set over the cells of the
+ * board. Each cell is one bit of a {@code long[]}, so membership tests, inserts
+ * and removals are constant time whatever the number of occupied cells.
+ *
+ */
+public class Bitboard {
+
+    /**
+     * The number of cells on the board.
+     */
+    public static final int CELL_COUNT = BoardPanel.COL_COUNT * BoardPanel.ROW_COUNT;
+
+    /**
+     * The number of 64 bit words needed to hold one bit per cell.
+     */
+    private static final int WORD_COUNT = (CELL_COUNT + 63) >>> 6;
+
+    /*
+     * Masks of the cells a shift by one may land on without wrapping to the
+     * next row: every column but the first for a move east, every column but
+     * the last for a move west. ON_BOARD drops the bits past the last cell.
+     */
+    private static final long[] NOT_FIRST_COLUMN = new long[WORD_COUNT];
+    private static final long[] NOT_LAST_COLUMN = new long[WORD_COUNT];
+    private static final long[] ON_BOARD = new long[WORD_COUNT];
+
+    static {
+        for (int cell = 0; cell < CELL_COUNT; cell++) {
+            ON_BOARD[cell >>> 6] |= 1L << cell;
+            if (cellX(cell) != 0)
+                NOT_FIRST_COLUMN[cell >>> 6] |= 1L << cell;
+            if (cellX(cell) != BoardPanel.COL_COUNT - 1)
+                NOT_LAST_COLUMN[cell >>> 6] |= 1L << cell;
+        }
+    }
+
+    /**
+     * The occupancy bits, cell {@code i} is bit {@code i & 63} of word {@code i >>> 6}.
+     */
+    private final long[] words;
+
+    /**
+     * Creates a new, empty bitboard.
+     */
+    public Bitboard() {
+        this.words = new long[WORD_COUNT];
+    }
+
+    /**
+     * Creates a copy of another bitboard.
+     * @param other The bitboard to copy.
+     */
+    public Bitboard(Bitboard other) {
+        this.words = other.words.clone();
+    }
+
+    /**
+     * Converts a coordinate to a cell index.
+     * @param x The x coordinate of the cell.
+     * @param y The y coordinate of the cell.
+     * @return The cell index.
+     */
+    public static int cell(int x, int y) {
+        return y * BoardPanel.COL_COUNT + x;
+    }
+
+    /**
+     * Gets the x coordinate of a cell index.
+     * @param cell The cell index.
+     * @return The x coordinate.
+     */
+    public static int cellX(int cell) {
+        return cell % BoardPanel.COL_COUNT;
+    }
+
+    /**
+     * Gets the y coordinate of a cell index.
+     * @param cell The cell index.
+     * @return The y coordinate.
+     */
+    public static int cellY(int cell) {
+        return cell / BoardPanel.COL_COUNT;
+    }
+
+    /**
+     * Checks whether a coordinate lies on the board.
+     * @param x The x coordinate.
+     * @param y The y coordinate.
+     * @return Whether or not the coordinate is on the board.
+     */
+    public static boolean inBoard(int x, int y) {
+        return x >= 0 && x < BoardPanel.COL_COUNT && y >= 0 && y < BoardPanel.ROW_COUNT;
+    }
+
+    /**
+     * Checks whether a cell is occupied.
+     * @param cell The cell index.
+     * @return Whether or not the cell is occupied.
+     */
+    public boolean get(int cell) {
+        return (words[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Marks a cell as occupied.
+     * @param cell The cell index.
+     */
+    public void set(int cell) {
+        words[cell >>> 6] |= 1L << cell;
+    }
+
+    /**
+     * Marks a cell as free.
+     * @param cell The cell index.
+     */
+    public void clear(int cell) {
+        words[cell >>> 6] &= ~(1L << cell);
+    }
+
+    /**
+     * Marks every cell as free.
+     */
+    public void clearAll() {
+        for (int i = 0; i < words.length; i++) {
+            words[i] = 0L;
+        }
+    }
+
+    /**
+     * Overwrites this bitboard with the contents of another one.
+     * @param other The bitboard to copy.
+     */
+    public void copyFrom(Bitboard other) {
+        System.arraycopy(other.words, 0, words, 0, words.length);
+    }
+
+    /**
+     * Adds the cells of another bitboard to this one.
+     * @param other The bitboard to add.
+     */
+    public void or(Bitboard other) {
+        for (int i = 0; i < words.length; i++) {
+            words[i] |= other.words[i];
+        }
+    }
+
+    /**
+     * Overwrites this bitboard with the cells reachable from a cell without
+     * crossing a blocked one. The region grows by one step in all four
+     * directions at once, a whole word at a time, until it stops growing or
+     * covers the limit.
+     * @param from The cell to start from. Kept even if it is blocked.
+     * @param blocked The cells that can not be crossed.
+     * @param limit The number of cells after which there is no need to go on.
+     * @return The number of cells covered, at most the region size and at least
+     *         the limit if the region is that large.
+     */
+    public int fill(int from, Bitboard blocked, int limit) {
+        clearAll();
+        set(from);
+        int count = 1;
+        int shift = BoardPanel.COL_COUNT;
+        while (count < limit) {
+            // Growing in place only ever adds reachable cells, so the words can be read half updated
+            for (int i = words.length - 1; i >= 0; i--) {
+                long current = words[i];
+                long previous = i > 0 ? words[i - 1] : 0L;
+                long next = i + 1 < words.length ? words[i + 1] : 0L;
+                long east = ((current << 1) | (previous >>> 63)) & NOT_FIRST_COLUMN[i];
+                long west = ((current >>> 1) | (next << 63)) & NOT_LAST_COLUMN[i];
+                long south = (current << shift) | (previous >>> (64 - shift));
+                long north = (current >>> shift) | (next << (64 - shift));
+                words[i] = current | ((east | west | south | north) & ~blocked.words[i] & ON_BOARD[i]);
+            }
+            int grown = count();
+            if (grown == count)
+                break;
+            count = grown;
+        }
+        return count;
+    }
+
+    /**
+     * Counts the occupied cells.
+     * @return The number of occupied cells.
+     */
+    public int count() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+}
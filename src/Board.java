@@ -0,0 +1,87 @@
+import java.awt.Point;
+
+/**
+ * The {@code Board} class holds the contents of the game board: the tile at
+ * every coordinate and the position of the fruit. It has no display, so the
+ * solvers and the {@code GameEngine} can run without Swing.
+ *
+ */
+public class Board {
+
+	/**
+	 * The array of tiles that make up this board.
+	 */
+	private TileType[] tiles;
+
+	public int fruitX, fruitY;
+
+	/**
+	 * Creates a new, empty Board instance.
+	 */
+	public Board() {
+		this.tiles = new TileType[BoardPanel.ROW_COUNT * BoardPanel.COL_COUNT];
+	}
+
+	/**
+	 * Creates a copy of another board.
+	 * @param board The board to copy.
+	 */
+	public Board(Board board) {
+		this.tiles = board.tiles.clone();
+		this.fruitX = board.fruitX;
+		this.fruitY = board.fruitY;
+	}
+
+	/**
+	 * Clears all of the tiles on the board and sets their values to null.
+	 */
+	public void clearBoard() {
+		for(int i = 0; i < tiles.length; i++) {
+			tiles[i] = null;
+		}
+	}
+
+	/**
+	 * Sets the tile at the desired coordinate.
+	 * @param point The coordinate of the tile.
+	 * @param type The type to set the tile to.
+	 */
+	public void setTile(Point point, TileType type) {
+		setTile(point.x, point.y, type);
+	}
+
+	/**
+	 * Sets the tile at the desired coordinate.
+	 * @param x The x coordinate of the tile.
+	 * @param y The y coordinate of the tile.
+	 * @param type The type to set the tile to.
+	 */
+	public void setTile(int x, int y, TileType type) {
+		tiles[y * BoardPanel.ROW_COUNT + x] = type;
+	}
+
+	/**
+	 * Gets the tile at the desired coordinate.
+	 * @param x The x coordinate of the tile.
+	 * @param y The y coordinate of the tile.
+	 * @return The type of the tile, or null if it is empty.
+	 */
+	public TileType getTile(int x, int y) {
+		return tiles[y * BoardPanel.ROW_COUNT + x];
+	}
+
+	public TileType getTile(Point point) {
+		return getTile((int)point.getX(), (int)point.getY());
+	}
+
+	public boolean inBoard(Point point){
+		int x = (int)point.getX();
+		int y = (int)point.getY();
+		if(x < 0 || x >= BoardPanel.COL_COUNT)
+			return false;
+		if(y < 0 || y >= BoardPanel.ROW_COUNT)
+			return false;
+		return true;
+	}
+
+}
@@ -2,7 +2,8 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
-import java.awt.Point;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
 
 import javax.swing.JPanel;
 
@@ -10,6 +11,11 @@ import javax.swing.JPanel;
  * The {@code BoardPanel} class is responsible for managing and displaying the
  * contents of the game board.
  *
+ * Each kind of tile is rendered once into a sprite, and the board is kept in
+ * a back buffer in which only the tiles that changed are copied over. Only
+ * a handful of tiles change per tick, so a frame costs a few image copies
+ * instead of redrawing the whole board.
+ *
  */
 public class BoardPanel extends JPanel {
 
@@ -50,128 +56,123 @@ public class BoardPanel extends JPanel {
 	 */
 	private static final Font FONT = new Font("Tahoma", Font.BOLD, 25);
 		
-	/**
-	 * The SnakeGame instance.
+	/*
+	 * The indices of the sprites. The heads facing each direction follow
+	 * SPRITE_HEAD, which has no eyes, in the order of the directions.
 	 */
-	private SnakeGame game;
+	private static final int SPRITE_EMPTY = 0;
+	private static final int SPRITE_FRUIT = 1;
+	private static final int SPRITE_BODY = 2;
+	private static final int SPRITE_HEAD = 3;
 	
 	/**
-	 * The array of tiles that make up this board.
+	 * The rendered sprites, shared by every board.
 	 */
-	private TileType[] tiles;
-
-	public int fruitX, fruitY;
+	private static final BufferedImage[] SPRITES = createSprites();
 		
 	/**
-	 * Creates a new BoardPanel instance.
-	 * @param game The SnakeGame instance.
+	 * The SnakeGame instance.
 	 */
-	public BoardPanel(SnakeGame game) {
-		this.game = game;
-		this.tiles = new TileType[ROW_COUNT * COL_COUNT];
-		
-		setPreferredSize(new Dimension(COL_COUNT * TILE_SIZE, ROW_COUNT * TILE_SIZE));
-		setBackground(Color.BLACK);
-	}
-
-	public BoardPanel(BoardPanel board){
-		this.game = board.game.duplicate();
-		this.tiles = board.tiles.clone();
-	}
-
-	public BoardPanel(){
-
-	}
+	private SnakeGame game;
 	
 	/**
-	 * Clears all of the tiles on the board and sets their values to null.
+	 * The image holding the tiles of the board, painted to the screen as a whole.
 	 */
-	public void clearBoard() {
-		for(int i = 0; i < tiles.length; i++) {
-			tiles[i] = null;
-		}
-	}
+	private final BufferedImage backBuffer;
 	
 	/**
-	 * Sets the tile at the desired coordinate.
-	 * @param point The coordinate of the tile.
-	 * @param type The type to set the tile to.
+	 * The sprite last copied into the back buffer for each tile, -1 before
+	 * the first frame. Only used on the event dispatch thread.
 	 */
-	public void setTile(Point point, TileType type) {
-		setTile(point.x, point.y, type);
-	}
+	private final int[] painted;
 	
 	/**
-	 * Sets the tile at the desired coordinate.
-	 * @param x The x coordinate of the tile.
-	 * @param y The y coordinate of the tile.
-	 * @param type The type to set the tile to.
+	 * The sprite of each tile as of the last {@link #refresh()}, and the
+	 * message shown then, to find the regions to repaint.
 	 */
-	public void setTile(int x, int y, TileType type) {
-		tiles[y * ROW_COUNT + x] = type;
-	}
+	private final int[] requested;
+	private int requestedMessage = -1;
 	
 	/**
-	 * Gets the tile at the desired coordinate.
-	 * @param x The x coordinate of the tile.
-	 * @param y The y coordinate of the tile.
-	 * @return
+	 * Creates a new BoardPanel instance.
+	 * @param game The SnakeGame instance.
 	 */
-	public TileType getTile(int x, int y) {
-		return tiles[y * ROW_COUNT + x];
+	public BoardPanel(SnakeGame game) {
+		this.game = game;
+		
+		setPreferredSize(new Dimension(COL_COUNT * TILE_SIZE, ROW_COUNT * TILE_SIZE));
+		setBackground(Color.BLACK);
+		
+		this.backBuffer = new BufferedImage(COL_COUNT * TILE_SIZE, ROW_COUNT * TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+		this.painted = new int[COL_COUNT * ROW_COUNT];
+		this.requested = new int[COL_COUNT * ROW_COUNT];
+		Arrays.fill(painted, -1);
+		Arrays.fill(requested, -1);
 	}
 
-	public TileType getTile(Point point) {
-		return getTile((int)point.getX(), (int)point.getY());
+	/**
+	 * Repaints the tiles that changed since the last call. Only the regions
+	 * of those tiles are scheduled, unless the message shown over the board
+	 * changed, in which case the whole board is.
+	 */
+	public void refresh() {
+		GameEngine engine = game.getEngine();
+		Board board = engine.getBoard();
+		Direction dir = engine.getDirection();
+		int message = messageOf(engine);
+		boolean repaintAll = message != requestedMessage;
+		requestedMessage = message;
+		for(int x = 0; x < COL_COUNT; x++) {
+			for(int y = 0; y < ROW_COUNT; y++) {
+				int sprite = spriteOf(board.getTile(x, y), dir);
+				int index = y * COL_COUNT + x;
+				if(sprite != requested[index]) {
+					requested[index] = sprite;
+					if(!repaintAll) {
+						repaint(x * TILE_SIZE, y * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+					}
+				}
+			}
+		}
+		if(repaintAll) {
+			repaint();
+		}
 	}
 
-	public boolean inBoard(Point point){
-		int x = (int)point.getX();
-		int y = (int)point.getY();
-		if(x < 0 || x >= COL_COUNT)
-			return false;
-		if(y < 0 || y >= ROW_COUNT)
-			return false;
-		return true;
-	}
-	
 	@Override
 	public void paintComponent(Graphics g) {
-		super.paintComponent(g);
+		GameEngine engine = game.getEngine();
+		Board board = engine.getBoard();
+		Direction dir = engine.getDirection();
 		
 		/*
-		 * Loop through each tile on the board and draw it if it
-		 * is not null.
+		 * Bring the back buffer up to date by copying the sprite of each tile
+		 * that changed since it was last painted, then copy the buffer to the
+		 * screen. Swing clips the copy to the regions being repainted.
 		 */
+		Graphics buffer = null;
 		for(int x = 0; x < COL_COUNT; x++) {
 			for(int y = 0; y < ROW_COUNT; y++) {
-				TileType type = getTile(x, y);
-				if(type != null) {
-					drawTile(x * TILE_SIZE, y * TILE_SIZE, type, g);
+				int sprite = spriteOf(board.getTile(x, y), dir);
+				int index = y * COL_COUNT + x;
+				if(sprite != painted[index]) {
+					if(buffer == null) {
+						buffer = backBuffer.getGraphics();
+					}
+					painted[index] = sprite;
+					paintTile(x, y, sprite, buffer);
 				}
 			}
 		}
-		
-		/*
-		 * Draw the grid on the board. This makes it easier to see exactly
-		 * where we in relation to the fruit.
-		 * 
-		 * The panel is one pixel too small to draw the bottom and right
-		 * outlines, so we outline the board with a rectangle separately.
-		 */
-		g.setColor(Color.DARK_GRAY);
-		g.drawRect(0, 0, getWidth() - 1, getHeight() - 1);
-		for(int x = 0; x < COL_COUNT; x++) {
-			for(int y = 0; y < ROW_COUNT; y++) {
-				g.drawLine(x * TILE_SIZE, 0, x * TILE_SIZE, getHeight());
-				g.drawLine(0, y * TILE_SIZE, getWidth(), y * TILE_SIZE);
-			}
-		}		
+		if(buffer != null) {
+			buffer.dispose();
+		}
+		g.drawImage(backBuffer, 0, 0, null);
 		
 		/*
 		 * Show a message on the screen based on the current game state.
 		 */
-		if(game.isGameOver() || game.isNewGame() || game.isPaused()) {
+		if(engine.isGameOver() || engine.isNewGame() || engine.isPaused()) {
 			g.setColor(Color.WHITE);
 			
 			/*
@@ -186,13 +187,13 @@ public class BoardPanel extends JPanel {
 			 */
 			String largeMessage = null;
 			String smallMessage = null;
-			if(game.isNewGame()) {
+			if(engine.isNewGame()) {
 				largeMessage = "Snake Game!";
 				smallMessage = "Press Enter to Start";
-			} else if(game.isGameOver()) {
+			} else if(engine.isGameOver()) {
 				largeMessage = "Game Over!";
 				smallMessage = "Press Enter to Restart";
-			} else if(game.isPaused()) {
+			} else if(engine.isPaused()) {
 				largeMessage = "Paused";
 				smallMessage = "Press P or space to Resume";
 			}
@@ -206,14 +207,115 @@ public class BoardPanel extends JPanel {
 		}
 	}
 	
+	/**
+	 * Copies the sprite of a tile into the back buffer.
+	 * @param x The x coordinate of the tile.
+	 * @param y The y coordinate of the tile.
+	 * @param sprite The index of the sprite.
+	 * @param g The graphics object of the back buffer.
+	 */
+	private void paintTile(int x, int y, int sprite, Graphics g) {
+		int pixelX = x * TILE_SIZE;
+		int pixelY = y * TILE_SIZE;
+		g.drawImage(SPRITES[sprite], pixelX, pixelY, null);
+		
+		/*
+		 * The sprites carry the grid lines on their top and left edges. The
+		 * tiles along the right and bottom edges also carry the outline of
+		 * the board.
+		 */
+		g.setColor(Color.DARK_GRAY);
+		if(x == COL_COUNT - 1) {
+			g.drawLine(pixelX + TILE_SIZE - 1, pixelY, pixelX + TILE_SIZE - 1, pixelY + TILE_SIZE - 1);
+		}
+		if(y == ROW_COUNT - 1) {
+			g.drawLine(pixelX, pixelY + TILE_SIZE - 1, pixelX + TILE_SIZE - 1, pixelY + TILE_SIZE - 1);
+		}
+	}
+	
+	/**
+	 * Gets the sprite a tile is drawn with.
+	 * @param type The type of the tile, or null if it is empty.
+	 * @param dir The direction the snake is facing, or null.
+	 * @return The index of the sprite.
+	 */
+	private static int spriteOf(TileType type, Direction dir) {
+		if(type == null) {
+			return SPRITE_EMPTY;
+		}
+		switch(type) {
+		case Fruit:
+			return SPRITE_FRUIT;
+		case SnakeBody:
+			return SPRITE_BODY;
+		default:
+			return dir == null ? SPRITE_HEAD : SPRITE_HEAD + 1 + dir.ordinal();
+		}
+	}
+	
+	/**
+	 * Gets the message shown over the board.
+	 * @param engine The game being displayed.
+	 * @return 0 for none, 1 for a new game, 2 for game over and 3 for paused.
+	 */
+	private static int messageOf(GameEngine engine) {
+		if(engine.isNewGame()) {
+			return 1;
+		} else if(engine.isGameOver()) {
+			return 2;
+		} else if(engine.isPaused()) {
+			return 3;
+		}
+		return 0;
+	}
+	
+	/**
+	 * Renders the sprite of every kind of tile, the heads once per direction.
+	 * @return The sprites, indexed as returned by {@link #spriteOf}.
+	 */
+	private static BufferedImage[] createSprites() {
+		Direction[] directions = Direction.values();
+		BufferedImage[] sprites = new BufferedImage[SPRITE_HEAD + 1 + directions.length];
+		sprites[SPRITE_EMPTY] = createSprite(null, null);
+		sprites[SPRITE_FRUIT] = createSprite(TileType.Fruit, null);
+		sprites[SPRITE_BODY] = createSprite(TileType.SnakeBody, null);
+		sprites[SPRITE_HEAD] = createSprite(TileType.SnakeHead, null);
+		for(Direction dir : directions) {
+			sprites[SPRITE_HEAD + 1 + dir.ordinal()] = createSprite(TileType.SnakeHead, dir);
+		}
+		return sprites;
+	}
+	
+	/**
+	 * Renders the sprite of a tile, with the grid lines on its top and left edges.
+	 * @param type The type of tile, or null for an empty one.
+	 * @param dir The direction the head faces, or null.
+	 * @return The sprite.
+	 */
+	private static BufferedImage createSprite(TileType type, Direction dir) {
+		BufferedImage sprite = new BufferedImage(TILE_SIZE, TILE_SIZE, BufferedImage.TYPE_INT_RGB);
+		Graphics g = sprite.getGraphics();
+		g.setColor(Color.BLACK);
+		g.fillRect(0, 0, TILE_SIZE, TILE_SIZE);
+		if(type != null) {
+			drawTile(0, 0, type, dir, g);
+		}
+		g.setColor(Color.DARK_GRAY);
+		g.drawLine(0, 0, TILE_SIZE - 1, 0);
+		g.drawLine(0, 0, 0, TILE_SIZE - 1);
+		g.dispose();
+		return sprite;
+	}
+	
 	/**
 	 * Draws a tile onto the board.
 	 * @param x The x coordinate of the tile (in pixels).
 	 * @param y The y coordinate of the tile (in pixels).
 	 * @param type The type of tile to draw.
+	 * @param dir The direction the head faces, or null.
 	 * @param g The graphics object to draw to.
 	 */
-	private void drawTile(int x, int y, TileType type, Graphics g) {
+	private static void drawTile(int x, int y, TileType type, Direction dir, Graphics g) {
 		/*
 		 * Because each type of tile is drawn differently, it's easiest
 		 * to just run through a switch statement rather than come up with some
@@ -278,7 +380,6 @@ public class BoardPanel extends JPanel {
 			 * directions.
 			 * 
 			 */
-			Direction dir = game.getDirection();
 			if(dir == null){
 				return;
 			}
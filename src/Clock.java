@@ -50,6 +50,26 @@ public class Clock {
         this.millisPerCycle = (1.0f / cyclesPerSecond) * 1000;
     }
 
+    /**
+     * Gets the length of one cycle.
+     * @return The number of milliseconds per cycle.
+     */
+    public float getMillisPerCycle() {
+        return millisPerCycle;
+    }
+
+    /**
+     * Gets the time left until the next cycle elapses, as of the last update.
+     * @return The number of milliseconds, 0 if a cycle is already due.
+     */
+    public float getMillisUntilCycle() {
+        if(elapsedCycles > 0) {
+            return 0.0f;
+        }
+        float elapsed = (float)(getCurrentTime() - lastUpdate) + excessCycles;
+        return Math.max(0.0f, millisPerCycle - elapsed);
+    }
+
     /**
      * Resets the clock stats. Elapsed cycles and cycle excess will be reset
      * to 0, the last update time will be reset to the current time, and the
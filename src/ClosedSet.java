@@ -0,0 +1,147 @@
+import java.util.Arrays;
+
+/**
+ * The {@code ClosedSet} class is the set of already explored states used by
+ * the A* solvers. States are stored by their Zobrist hash in a fixed size
+ * open-addressing table, so the set never grows during a search; when the
+ * few slots a hash may use are all taken, the first of them is overwritten
+ * and the state it held may be explored again.
+ *
+ */
+public class ClosedSet {
+
+    /**
+     * The number of consecutive slots searched for a hash.
+     */
+    private static final int PROBES = 8;
+
+    /**
+     * The stored hashes, 0 marks an empty slot.
+     */
+    private final long[] keys;
+
+    /**
+     * The number of slots minus one (the slot count is a power of two).
+     */
+    private final int mask;
+
+    /**
+     * Whether the hash 0, which can not be stored in {@code keys}, is in the set.
+     */
+    private boolean containsZero;
+
+    /**
+     * The number of states added since the last clear.
+     */
+    private int size;
+
+    /**
+     * The number of times a state was found already closed.
+     */
+    private long hits;
+
+    /**
+     * The number of occupied slots holding another hash that were skipped
+     * while looking for a hash.
+     */
+    private long collisions;
+
+    /**
+     * Creates a new, empty set.
+     * @param capacity The number of slots, rounded up to a power of two.
+     */
+    public ClosedSet(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(PROBES, capacity - 1) << 1);
+        this.keys = new long[slots];
+        this.mask = slots - 1;
+    }
+
+    /**
+     * Adds a state to the set.
+     * @param key The Zobrist hash of the state.
+     * @return true if the state was not closed yet, false if it already was.
+     */
+    public boolean add(long key) {
+        if (key == 0) {
+            if (containsZero) {
+                hits++;
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+        int index = (int) (key ^ (key >>> 32)) & mask;
+        for (int i = 0; i < PROBES; i++) {
+            int slot = (index + i) & mask;
+            if (keys[slot] == key) {
+                hits++;
+                return false;
+            }
+            if (keys[slot] == 0) {
+                keys[slot] = key;
+                size++;
+                return true;
+            }
+            collisions++;
+        }
+        keys[index] = key;
+        size++;
+        return true;
+    }
+
+    /**
+     * Checks whether a state is closed, without adding it.
+     * @param key The Zobrist hash of the state.
+     * @return Whether or not the state is in the set.
+     */
+    public boolean contains(long key) {
+        if (key == 0) {
+            return containsZero;
+        }
+        int index = (int) (key ^ (key >>> 32)) & mask;
+        for (int i = 0; i < PROBES; i++) {
+            long stored = keys[(index + i) & mask];
+            if (stored == key) {
+                return true;
+            }
+            if (stored == 0) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Empties the set for a new search. The hit and collision counters keep counting.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        containsZero = false;
+        size = 0;
+    }
+
+    /**
+     * Gets the number of states added since the last clear.
+     * @return The number of states.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of slots of the table.
+     * @return The number of slots.
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getCollisions() {
+        return collisions;
+    }
+}
@@ -0,0 +1,362 @@
+import java.util.Arrays;
+
+/**
+ * The {@code DStarLite} class is an incremental planner for the AI snake.
+ * It searches backwards from the fruit, so when the head moves and a few
+ * cells are entered or left, the distances it already knows stay valid and
+ * only the cells around the change are repaired, instead of searching the
+ * whole board again.
+ *
+ * Snake bodies are obstacles; a move into a blocked cell costs infinity and
+ * every other move costs one. The goal only changes when a new fruit
+ * spawns, which starts the planner over.
+ *
+ */
+public class DStarLite {
+
+    /**
+     * The distance of an unreachable cell. Small enough that adding a few to it does not overflow.
+     */
+    static final int INF = Integer.MAX_VALUE / 4;
+
+    /*
+     * The offsets of the four neighbours of a cell: east, west, north, south.
+     */
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1};
+
+    /**
+     * The current estimate of the distance from each cell to the goal.
+     */
+    private final int[] g = new int[Bitboard.CELL_COUNT];
+
+    /**
+     * The one step lookahead of g: the best neighbour distance plus one.
+     */
+    private final int[] rhs = new int[Bitboard.CELL_COUNT];
+
+    /**
+     * The cells that can not be entered.
+     */
+    private final Bitboard blocked = new Bitboard();
+
+    /**
+     * The cells whose g and rhs differ, ordered by key.
+     */
+    private final CellHeap open = new CellHeap(Bitboard.CELL_COUNT);
+
+    private int start;
+    private int goal;
+
+    /**
+     * The key modifier: how much the heuristic of the keys in the queue has
+     * to be corrected since the start moved.
+     */
+    private int km;
+
+    /**
+     * The number of cells taken off the queue since the planner was started,
+     * and by the last call of {@link #computeShortestPath()}.
+     */
+    private long expansions;
+    private int lastExpansions;
+
+    /**
+     * The largest the queue grew during the last call of {@link #computeShortestPath()}.
+     */
+    private int lastPeakOpen;
+
+    /**
+     * Starts planning towards a new goal.
+     * @param start The cell of the head.
+     * @param goal The cell of the fruit.
+     * @param obstacles The cells that can not be entered. Copied.
+     */
+    public void reset(int start, int goal, Bitboard obstacles) {
+        this.start = start;
+        this.goal = goal;
+        this.km = 0;
+        blocked.copyFrom(obstacles);
+        Arrays.fill(g, INF);
+        Arrays.fill(rhs, INF);
+        open.clear();
+        rhs[goal] = 0;
+        open.insert(goal, heuristic(start, goal), 0);
+    }
+
+    /**
+     * Moves the start to where the head now is.
+     * @param cell The cell of the head.
+     */
+    public void moveStart(int cell) {
+        km += heuristic(start, cell);
+        start = cell;
+    }
+
+    /**
+     * Marks a cell as blocked or free and repairs the cells next to it, whose
+     * move into the cell changed cost.
+     * @param cell The cell index.
+     * @param isBlocked Whether or not the cell can be entered.
+     */
+    public void setBlocked(int cell, boolean isBlocked) {
+        if (blocked.get(cell) == isBlocked)
+            return;
+        if (isBlocked)
+            blocked.set(cell);
+        else
+            blocked.clear(cell);
+        updateNeighbours(cell);
+    }
+
+    /**
+     * Repairs the distances until the start is consistent again.
+     * @return Whether or not the goal can be reached from the start.
+     */
+    public boolean computeShortestPath() {
+        lastExpansions = 0;
+        lastPeakOpen = open.size();
+        while (!open.isEmpty() && (compareTopKey(start) < 0 || rhs[start] != g[start])) {
+            lastPeakOpen = Math.max(lastPeakOpen, open.size());
+            int u = open.peek();
+            int oldKey1 = open.peekKey1();
+            int oldKey2 = open.peekKey2();
+            int newKey1 = key1(u);
+            int newKey2 = key2(u);
+            lastExpansions++;
+            if (oldKey1 < newKey1 || (oldKey1 == newKey1 && oldKey2 < newKey2)) {
+                open.update(u, newKey1, newKey2);
+            } else if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+                open.remove(u);
+                updateNeighbours(u);
+            } else {
+                g[u] = INF;
+                updateVertex(u);
+                updateNeighbours(u);
+            }
+        }
+        expansions += lastExpansions;
+        return g[start] < INF;
+    }
+
+    /**
+     * Picks the neighbour of the start on a shortest path to the goal.
+     * @return The cell to move to, or -1 if no neighbour leads to the goal.
+     */
+    public int nextCell() {
+        int best = -1;
+        int bestDistance = INF;
+        int x = Bitboard.cellX(start);
+        int y = Bitboard.cellY(start);
+        for (int i = 0; i < 4; i++) {
+            int nx = x + DX[i];
+            int ny = y + DY[i];
+            if (!Bitboard.inBoard(nx, ny))
+                continue;
+            int cell = Bitboard.cell(nx, ny);
+            if (!blocked.get(cell) && g[cell] < bestDistance) {
+                best = cell;
+                bestDistance = g[cell];
+            }
+        }
+        return best;
+    }
+
+    public long getExpansions() {
+        return expansions;
+    }
+
+    public int getLastExpansions() {
+        return lastExpansions;
+    }
+
+    public int getLastPeakOpen() {
+        return lastPeakOpen;
+    }
+
+    private void updateNeighbours(int cell) {
+        int x = Bitboard.cellX(cell);
+        int y = Bitboard.cellY(cell);
+        for (int i = 0; i < 4; i++) {
+            if (Bitboard.inBoard(x + DX[i], y + DY[i]))
+                updateVertex(Bitboard.cell(x + DX[i], y + DY[i]));
+        }
+    }
+
+    /**
+     * Recomputes the rhs of a cell from its neighbours and puts it on the
+     * queue if it is now inconsistent.
+     */
+    private void updateVertex(int cell) {
+        if (cell != goal) {
+            int best = INF;
+            int x = Bitboard.cellX(cell);
+            int y = Bitboard.cellY(cell);
+            for (int i = 0; i < 4; i++) {
+                best = Math.min(best, stepCost(x + DX[i], y + DY[i]));
+            }
+            rhs[cell] = best;
+        }
+        if (open.contains(cell))
+            open.remove(cell);
+        if (g[cell] != rhs[cell])
+            open.insert(cell, key1(cell), key2(cell));
+    }
+
+    /**
+     * Gets the cost of reaching the goal through a neighbour.
+     */
+    private int stepCost(int x, int y) {
+        if (!Bitboard.inBoard(x, y))
+            return INF;
+        int cell = Bitboard.cell(x, y);
+        if (blocked.get(cell) || g[cell] >= INF)
+            return INF;
+        return g[cell] + 1;
+    }
+
+    private int key1(int cell) {
+        int distance = Math.min(g[cell], rhs[cell]);
+        return distance >= INF ? INF : distance + heuristic(start, cell) + km;
+    }
+
+    private int key2(int cell) {
+        return Math.min(g[cell], rhs[cell]);
+    }
+
+    /**
+     * Compares the smallest key on the queue with the key of a cell.
+     */
+    private int compareTopKey(int cell) {
+        int k1 = key1(cell);
+        int top1 = open.peekKey1();
+        if (top1 != k1)
+            return top1 < k1 ? -1 : 1;
+        return Integer.compare(open.peekKey2(), key2(cell));
+    }
+
+    private static int heuristic(int a, int b) {
+        return Math.abs(Bitboard.cellX(a) - Bitboard.cellX(b)) + Math.abs(Bitboard.cellY(a) - Bitboard.cellY(b));
+    }
+
+    /**
+     * A binary min-heap of cells ordered by two-part keys, which knows where
+     * each cell is so it can be moved or removed without a search.
+     */
+    private static class CellHeap {
+        private final int[] cells;
+        private final int[] key1;
+        private final int[] key2;
+
+        /**
+         * The position of each cell in the heap, or -1 when it is not in it.
+         */
+        private final int[] position;
+        private int size;
+
+        CellHeap(int capacity) {
+            cells = new int[capacity];
+            key1 = new int[capacity];
+            key2 = new int[capacity];
+            position = new int[capacity];
+            Arrays.fill(position, -1);
+        }
+
+        void clear() {
+            for (int i = 0; i < size; i++)
+                position[cells[i]] = -1;
+            size = 0;
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean contains(int cell) {
+            return position[cell] >= 0;
+        }
+
+        int peek() {
+            return cells[0];
+        }
+
+        int peekKey1() {
+            return size == 0 ? INF : key1[cells[0]];
+        }
+
+        int peekKey2() {
+            return size == 0 ? INF : key2[cells[0]];
+        }
+
+        void insert(int cell, int k1, int k2) {
+            key1[cell] = k1;
+            key2[cell] = k2;
+            cells[size] = cell;
+            position[cell] = size;
+            size++;
+            siftUp(size - 1);
+        }
+
+        void update(int cell, int k1, int k2) {
+            key1[cell] = k1;
+            key2[cell] = k2;
+            int i = position[cell];
+            siftUp(i);
+            siftDown(position[cell]);
+        }
+
+        void remove(int cell) {
+            int i = position[cell];
+            position[cell] = -1;
+            size--;
+            if (i == size)
+                return;
+            int last = cells[size];
+            cells[i] = last;
+            position[last] = i;
+            siftUp(i);
+            siftDown(position[last]);
+        }
+
+        private boolean less(int a, int b) {
+            return key1[a] < key1[b] || (key1[a] == key1[b] && key2[a] < key2[b]);
+        }
+
+        private void siftUp(int i) {
+            int cell = cells[i];
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!less(cell, cells[parent]))
+                    break;
+                cells[i] = cells[parent];
+                position[cells[i]] = i;
+                i = parent;
+            }
+            cells[i] = cell;
+            position[cell] = i;
+        }
+
+        private void siftDown(int i) {
+            int cell = cells[i];
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size)
+                    break;
+                if (child + 1 < size && less(cells[child + 1], cells[child]))
+                    child++;
+                if (!less(cells[child], cell))
+                    break;
+                cells[i] = cells[child];
+                position[cells[i]] = i;
+                i = child;
+            }
+            cells[i] = cell;
+            position[cell] = i;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * The {@code DistanceField} class holds the fewest moves from every cell to
+ * the fruit, for every move of a search, as a heuristic for the planners.
+ * A snake cell can only be entered once its tail has gone, so a cell of
+ * the field is the distance through the cells that are free by then, and
+ * the snake bodies make the distance longer than the Manhattan distance
+ * wherever they stand in the way.
+ *
+ * The field is computed from the free times of a {@link SpaceTimePlanner}
+ * when a search starts, one layer per move, from the last layer back to
+ * the first. A snake may not stand still, but the field lets it, and it
+ * ignores the cells the searched snake covers on its way, so it never
+ * overestimates: A* stays optimal and idA* finds every path it looks for.
+ * Past the last layer every body has gone and the Manhattan distance is
+ * exact.
+ *
+ */
+public class DistanceField {
+
+    /**
+     * The distance from a cell walled in for good.
+     */
+    static final int INF = Short.MAX_VALUE;
+
+    /**
+     * The number of moves the field is layered over. The later moves get
+     * the Manhattan distance, which is lower, so the field stays admissible.
+     */
+    private static final int MAX_LAYERS = 2 * (BoardPanel.COL_COUNT + BoardPanel.ROW_COUNT);
+
+    /*
+     * The offsets of the four neighbours of a cell: east, west, north, south.
+     */
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1};
+
+    /**
+     * The distance from each cell to the goal, indexed by cell + CELL_COUNT * move.
+     */
+    private final short[] distance = new short[Bitboard.CELL_COUNT * (MAX_LAYERS + 1)];
+
+    private int goal = -1;
+
+    /**
+     * The move from which every cell is free and the Manhattan distance is used.
+     */
+    private int layers;
+
+    /**
+     * The number of distances set since the field was created.
+     */
+    private long updates;
+
+    /**
+     * Computes the field for a new search.
+     * @param goal The cell of the fruit.
+     * @param freeTimes When each cell can be entered.
+     */
+    public void reset(int goal, SpaceTimePlanner freeTimes) {
+        this.goal = goal;
+        layers = Math.min(freeTimes.getHorizon(), MAX_LAYERS);
+        int goalX = Bitboard.cellX(goal);
+        int goalY = Bitboard.cellY(goal);
+        int last = layers * Bitboard.CELL_COUNT;
+        for (int cell = 0; cell < Bitboard.CELL_COUNT; cell++)
+            distance[last + cell] = (short) (Math.abs(Bitboard.cellX(cell) - goalX) + Math.abs(Bitboard.cellY(cell) - goalY));
+
+        // A cell at one move is one step further than its best neighbour free at the next
+        for (int move = layers - 1; move >= 0; move--) {
+            int layer = move * Bitboard.CELL_COUNT;
+            int next = layer + Bitboard.CELL_COUNT;
+            for (int cell = 0; cell < Bitboard.CELL_COUNT; cell++) {
+                if (cell == goal) {
+                    distance[layer + cell] = 0;
+                    continue;
+                }
+                int x = Bitboard.cellX(cell);
+                int y = Bitboard.cellY(cell);
+                int best = INF - 1;
+                for (int i = 0; i < 4; i++) {
+                    int nx = x + DX[i];
+                    int ny = y + DY[i];
+                    if (!Bitboard.inBoard(nx, ny))
+                        continue;
+                    int neighbour = Bitboard.cell(nx, ny);
+                    if (freeTimes.freeAt(neighbour) <= move + 1)
+                        best = Math.min(best, distance[next + neighbour]);
+                }
+                distance[layer + cell] = (short) (best + 1);
+            }
+        }
+        updates += (long) (layers + 1) * Bitboard.CELL_COUNT;
+    }
+
+    /**
+     * Gets the distance from a cell to the goal.
+     * @param cell The cell index.
+     * @param move The move of the search the cell is reached at.
+     * @return The distance, or INF if the goal can not be reached from there.
+     */
+    public int distance(int cell, int move) {
+        return distance[Math.min(move, layers) * Bitboard.CELL_COUNT + cell];
+    }
+
+    public long getUpdates() {
+        return updates;
+    }
+}
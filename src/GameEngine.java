@@ -0,0 +1,2696 @@
+import java.awt.Point;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.random.RandomGenerator;
+
+/**
+ * The {@code GameEngine} class holds the state and the rules of one game and
+ * runs the solvers. It has no display: {@link #tick()} advances the game by
+ * one logic cycle, so a game can be played headless or drawn by a
+ * {@code SnakeGame} window.
+ *
+ */
+public class GameEngine {
+
+	public static class GameState implements Comparable<GameState>{
+
+		GameState parent;
+		SnakeBuffer snake,player_snake;
+		Board board;
+		int moves;
+		int priority;
+		int x, y;
+		// Zobrist hash of the whole AI snake, body order included; the player snake never moves during a search
+		long key;
+
+		// Generate a state from a game
+		GameState(GameEngine engine, int moves, int priority){
+			board = engine.board;
+			snake = SnakeBuffer.of(engine.snake);
+			if (engine.mode == SolverMode.MCTS)
+				player_snake = SnakeBuffer.of(engine.player_snake);
+			this.moves = moves;
+			this.parent = null;
+			this.priority = priority;
+			x = snake.headX();
+			y = snake.headY();
+			key = snake.zobristKey();
+		}
+		// Generate a state from a parent state
+		GameState(GameState parent, int moves, int priority){
+			board = parent.board;
+			snake = new SnakeBuffer(parent.snake);
+			// The player snake stands still while the AI path is searched, so it is shared
+			player_snake = parent.player_snake;
+			this.moves = moves;
+			this.parent = parent;
+			this.priority = priority;
+			x = snake.headX();
+			y = snake.headY();
+			key = parent.key;
+		}
+		// Generate a state from a parent state for idAStar
+		GameState(GameState parent){
+			board = parent.board;
+			snake = new SnakeBuffer(parent.snake);
+			player_snake = new SnakeBuffer(parent.player_snake);
+			this.moves = 0;
+			this.parent = parent;
+			this.priority = 0;
+			x = snake.headX();
+			y = snake.headY();
+			key = snake.zobristKey();
+		}
+		// Generate everything as null
+		GameState(){
+			parent = null;
+			snake = null;
+			board = null;
+			moves = Integer.MIN_VALUE;
+			priority = Integer.MIN_VALUE;
+			x = 0;
+			y = 0;
+		}
+
+		// Generate a bare step of a path found on cells, which only knows its cell
+		static GameState pathStep(GameState parent, int x, int y){
+			GameState state = new GameState();
+			state.parent = parent;
+			state.moves = parent == null ? 0 : parent.moves + 1;
+			state.x = x;
+			state.y = y;
+			return state;
+		}
+
+		@Override
+		public int compareTo(GameState that) {
+			if (this.priority < that.priority)
+				return -1;
+			if (this.priority > that.priority)
+				return 1;
+			return 0;
+		}
+
+		public String toString(){
+			return "State (" + x + ", " + y + ")";
+		}
+	}
+
+	/**
+	 * The minimum length of the snake. This allows the snake to grow
+	 * right when the game starts, so that we're not just a head moving
+	 * around on the board.
+	 */
+	private static final int MIN_SNAKE_LENGTH = 5;
+
+	/**
+	 * The maximum number of directions that we can have polled in the
+	 * direction list.
+	 */
+	private static final int MAX_DIRECTIONS = 3;
+
+	/**
+	 * The Board instance.
+	 */
+	private Board board;
+
+	/**
+	 * The random number generator (used for spawning fruits).
+	 */
+	private RandomGenerator random;
+
+	/**
+	 * The source of the random streams of the current game, and its seed.
+	 */
+	private RandomStreams streams;
+	private long seed;
+
+	/**
+	 * Whether every game replays from the seed given to {@link #setSeed(long)}
+	 * rather than drawing a new one.
+	 */
+	private boolean seedFixed;
+
+	/**
+	 * Whether or not we're running a new game.
+	 */
+	private boolean isNewGame;
+
+	/**
+	 * Whether or not the game is over.
+	 */
+	private boolean isGameOver;
+
+	/**
+	 * Whether or not the game is paused.
+	 */
+	private boolean isPaused;
+
+	/**
+	 * The list that contains the points for the snake.
+	 */
+	private LinkedList<Point> snake;
+	private LinkedList<Point> player_snake;
+	/**
+	 * The list that contains the queued directions.
+	 */
+	private LinkedList<Direction> directions;
+	private LinkedList<Direction> playerDirections;
+
+	/**
+	 * Whether or not the engine steers the player snake, for games no one
+	 * plays. Only the MCTS mode has a player snake.
+	 */
+	private boolean playerAutopilot;
+
+	/**
+	 * The flood fill of the autopilot, reused every cycle.
+	 */
+	private final int[] roomQueue = new int[Bitboard.CELL_COUNT];
+	private final Bitboard roomSeen = new Bitboard();
+
+	/**
+	 * The current moves.
+	 */
+	private int score;
+
+	/**
+	 * The number of fruits that we've eaten.
+	 */
+	private int fruitsEaten;
+
+	/**
+	 * The number of those fruits the player snake ate.
+	 */
+	private int playerFruitsEaten;
+
+	/**
+	 * The number of points that the next fruit will award us.
+	 */
+	private int nextFruitScore;
+
+	/**
+	 * X position of the fruit
+	 */
+	private int fruitX;
+
+	/**
+	 * Y position of the fruit
+	 */
+	private int fruitY;
+
+	/**
+	 * A map that holds all the directions at given coordinates
+	 */
+	private Map<Integer, Direction> directionMap;
+
+	/**
+	 * The states already explored by AStar and idAStar, keyed on the whole
+	 * snake rather than on the head alone.
+	 * Cleared at the beginning of each independent search
+	 */
+	private final ClosedSet closedSet = new ClosedSet(CLOSED_SET_CAPACITY);
+
+	/**
+	 * The number of moves of the deepest state the current idAStar search reached.
+	 */
+	private int deepestPath;
+
+	/**
+	 * The number of slots of the closed set. A search gives up after closing
+	 * half as many states, which keeps the closed set sparse.
+	 */
+	private static final int CLOSED_SET_CAPACITY = 1 << 15;
+	private static final int MAX_CLOSED_STATES = CLOSED_SET_CAPACITY / 2;
+
+	/**
+	 * The planner of the DStarLite mode, which keeps its distances from one
+	 * cycle to the next. Null in the other modes.
+	 */
+	private DStarLite incrementalPlanner;
+
+	/**
+	 * The walking distance from every cell to the fruit, which the planners
+	 * use as their heuristic.
+	 */
+	private final DistanceField distanceField = new DistanceField();
+
+	/**
+	 * The share of the board the AI snake must cover for the Hamiltonian
+	 * cycle to take over from the searching solvers. Not used by the MCTS
+	 * mode, whose player snake does not follow the cycle. The takeover is
+	 * off by default, so each mode runs the solver it is named after;
+	 * {@link #setCycleFillRatio(double)} turns it on.
+	 */
+	public static final double DEFAULT_CYCLE_FILL_RATIO = 1.0;
+	private double cycleFillRatio = DEFAULT_CYCLE_FILL_RATIO;
+
+	/**
+	 * The tour of the board, once the snake follows it. Null before.
+	 */
+	private HamiltonianCycle cycle;
+
+	/**
+	 * Whether the body lies along the tour in order, from the tail to the
+	 * head. Only then can a move be checked from the head and tail alone.
+	 */
+	private boolean cycleAligned;
+
+	/**
+	 * The free cells to keep between the head and the tail when cutting
+	 * across the tour, for the snake to grow into.
+	 */
+	private static final int SHORTCUT_MARGIN = 3;
+
+	/*
+	 * The offsets of the four neighbors of a cell: east, west, north, south.
+	 */
+	private static final int[] NEIGHBOR_DX = {1, -1, 0, 0};
+	private static final int[] NEIGHBOR_DY = {0, 0, -1, 1};
+
+	/**
+	 * The number of moves made along the tour, and of those that cut across it.
+	 */
+	private long cycleMoves;
+	private long cycleShortcuts;
+
+	/**
+	 * Keeps the searches out of pockets too small for the snake, and the
+	 * candidate cells it is given.
+	 */
+	private final Reachability reachability = new Reachability();
+	private final int[] neighborCells = new int[4];
+
+	/**
+	 * When each snake cell frees up, for the planners to walk through a
+	 * body once its tail has gone.
+	 */
+	private final SpaceTimePlanner spaceTimePlanner = new SpaceTimePlanner();
+
+	/**
+	 * The planner of the JPS mode. Null in the other modes.
+	 */
+	private JumpPointSearch jumpPointPlanner;
+
+	/**
+	 * The cells entered or left by a snake during the current cycle, which
+	 * are all the incremental planner needs to repair.
+	 */
+	private final int[] changedCells = new int[4];
+	private int changedCellCount;
+
+	/**
+	 * The active plan as the cells of its path, from the head it was made at
+	 * to its end, and the position the head has reached on it.
+	 */
+	private int[] planCells = new int[BoardPanel.COL_COUNT + BoardPanel.ROW_COUNT];
+	private int planLength;
+	private int planIndex;
+
+	/**
+	 * The fruit the active plan leads to.
+	 */
+	private int planFruit;
+
+	/**
+	 * The cells of the active plan the head has not reached yet.
+	 */
+	private final Bitboard planAhead = new Bitboard();
+
+	/**
+	 * The number of cycles that kept the active plan, and that had to search a new one.
+	 */
+	private long plansReused;
+	private long plansRecomputed;
+
+	/**
+	 * The solver driving the AI snake.
+	 */
+	private SolverMode mode;
+
+	/**
+	 * The metrics the ticks and replans of this game are recorded in, those of its solver.
+	 */
+	private final SolverMetrics metrics;
+
+	/**
+	 * Creates a new GameEngine instance. The game starts as a new game and
+	 * is set up by {@link #reset()}.
+	 * @param solverMode The solver driving the AI snake.
+	 */
+	public GameEngine(SolverMode solverMode) {
+		this.mode = solverMode;
+		this.metrics = SolverMetrics.of(solverMode);
+		this.board = new Board();
+		this.snake = new LinkedList<>();
+		if (solverMode == SolverMode.MCTS)
+			this.player_snake = new LinkedList<>();
+		this.directions = new LinkedList<>();
+		this.isNewGame = true;
+		this.directionMap = new HashMap<>();
+		if (solverMode == SolverMode.MCTS)
+			this.playerDirections = new LinkedList<>();
+		if (solverMode == SolverMode.DStarLite)
+			this.incrementalPlanner = new DStarLite();
+		if (solverMode == SolverMode.JPS)
+			this.jumpPointPlanner = new JumpPointSearch();
+	}
+
+	/**
+	 * Resets the game's variables to their default states and starts a new game.
+	 */
+	public void reset() {
+		stopPondering();
+		resetGame(mode);
+	}
+
+	/**
+	 * Replaces the position of a game that has been reset, for the benchmarks
+	 * and any experiment that needs a given board rather than the opening
+	 * one. The plans and the MCTS tree of the old position are dropped.
+	 * @param aiSnake The AI snake, head first.
+	 * @param playerSnake The player snake, head first. Ignored outside the MCTS mode.
+	 * @param fruitX The x coordinate of the fruit.
+	 * @param fruitY The y coordinate of the fruit.
+	 */
+	void loadPosition(List<Point> aiSnake, List<Point> playerSnake, int fruitX, int fruitY) {
+		stopPondering();
+		board.clearBoard();
+		snake.clear();
+		for (Point p : aiSnake) {
+			snake.add(new Point(p));
+			board.setTile(p, TileType.SnakeBody);
+		}
+		if (player_snake != null) {
+			player_snake.clear();
+			for (Point p : playerSnake) {
+				player_snake.add(new Point(p));
+				board.setTile(p, TileType.SnakeBody);
+			}
+		}
+		this.fruitX = fruitX;
+		this.fruitY = fruitY;
+		board.fruitX = fruitX;
+		board.fruitY = fruitY;
+		board.setTile(fruitX, fruitY, TileType.Fruit);
+		prepareSearch();
+		directions.clear();
+		directionMap.clear();
+		tree = null;
+		cycle = null;
+	}
+
+	/**
+	 * Advances the game by one logic cycle: the AI snake follows its plan,
+	 * both snakes move, and the solver plans the next moves.
+	 */
+	public void tick() {
+		if (isNewGame || isGameOver || isPaused)
+			return;
+		setNanoTime();
+		long start = System.nanoTime();
+		stopPondering();
+		if (playerAutopilot && mode == SolverMode.MCTS)
+			steerPlayer();
+		checkActionList(snake.peekFirst());
+		updateGame(mode);
+		metrics.tickFinished(System.nanoTime() - start);
+	}
+
+	/**
+	 * Makes every following game start from the same seed. With a fixed
+	 * number of MCTS iterations and no pondering or tree-parallel search,
+	 * a game then replays bit-for-bit.
+	 * @param seed The master seed.
+	 */
+	public void setSeed(long seed) {
+		this.seed = seed;
+		this.seedFixed = true;
+	}
+
+	/**
+	 * Gets the seed the current game was started from, so it can be replayed.
+	 * @return The master seed.
+	 */
+	public long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Gets the board of this game.
+	 * @return The board.
+	 */
+	public Board getBoard() {
+		return board;
+	}
+
+	/**
+	 * Gets the solver driving the AI snake.
+	 * @return The solver mode.
+	 */
+	public SolverMode getMode() {
+		return mode;
+	}
+
+	/**
+	 * Pauses or unpauses the game. A finished game can not be unpaused.
+	 * @param paused Whether or not to pause the game.
+	 */
+	public void setPaused(boolean paused) {
+		if(!isGameOver) {
+			isPaused = paused;
+			// A paused game must not keep a core busy growing the tree
+			if (paused)
+				stopPondering();
+			else if (pondering && tree != null && ponderTask == null)
+				startPondering(tree);
+		}
+	}
+
+	/**
+	 * Lets the engine steer the player snake, so that a game without a
+	 * player is still a game of MCTS against an opponent rather than one
+	 * that ends when the idle player snake runs into the wall.
+	 * @param autopilot Whether or not the engine steers the player snake.
+	 */
+	public void setPlayerAutopilot(boolean autopilot) {
+		this.playerAutopilot = autopilot;
+	}
+
+	/**
+	 * Picks the move of the player snake: into the most room, up to the room
+	 * the snake needs, then towards the fruit, then straight on. Uses no
+	 * randomness, so a seeded game still replays.
+	 */
+	private void steerPlayer() {
+		Point head = player_snake.peekFirst();
+		Direction current = playerDirections.peekFirst();
+		int enough = Math.max(player_snake.size(), BoardPanel.COL_COUNT);
+		Direction best = null;
+		int bestRoom = 0;
+		int bestDistance = Integer.MAX_VALUE;
+		for (Direction dir : Direction.values()) {
+			int x = head.x;
+			int y = head.y;
+			switch (dir) {
+				case North:
+					y--;
+					break;
+				case South:
+					y++;
+					break;
+				case West:
+					x--;
+					break;
+				case East:
+					x++;
+					break;
+			}
+			if (!Bitboard.inBoard(x, y))
+				continue;
+			TileType tile = board.getTile(x, y);
+			if (tile == TileType.SnakeBody || tile == TileType.SnakeHead)
+				continue;
+			int room = freeRoom(Bitboard.cell(x, y), enough);
+			int distance = Math.abs(x - fruitX) + Math.abs(y - fruitY);
+			if (room > bestRoom || room == bestRoom
+					&& (distance < bestDistance || distance == bestDistance && dir == current)) {
+				best = dir;
+				bestRoom = room;
+				bestDistance = distance;
+			}
+		}
+		// Boxed in: keep going and lose
+		if (best != null) {
+			playerDirections.clear();
+			playerDirections.addLast(best);
+		}
+	}
+
+	/**
+	 * Counts the free cells reachable from a cell, stopping at a limit.
+	 * @param start The cell to fill from, which counts itself.
+	 * @param limit The count after which the fill stops.
+	 * @return The number of cells, at most the limit.
+	 */
+	private int freeRoom(int start, int limit) {
+		roomSeen.clearAll();
+		roomSeen.set(start);
+		roomQueue[0] = start;
+		int size = 1;
+		for (int head = 0; head < size && size < limit; head++) {
+			int x = Bitboard.cellX(roomQueue[head]);
+			int y = Bitboard.cellY(roomQueue[head]);
+			for (int i = 0; i < 4; i++) {
+				int nx = x + (i == 0 ? 1 : i == 1 ? -1 : 0);
+				int ny = y + (i == 2 ? 1 : i == 3 ? -1 : 0);
+				if (!Bitboard.inBoard(nx, ny))
+					continue;
+				int cell = Bitboard.cell(nx, ny);
+				TileType tile = board.getTile(nx, ny);
+				if (roomSeen.get(cell) || tile == TileType.SnakeBody || tile == TileType.SnakeHead)
+					continue;
+				roomSeen.set(cell);
+				roomQueue[size++] = cell;
+			}
+		}
+		return Math.min(size, limit);
+	}
+
+	public String toString(){
+		return "GameEngine: player:("+player_snake.peekFirst().x +","+player_snake.peekFirst().y +
+				")  AI:("+snake.peekFirst().x +","+snake.peekFirst().y +
+				") Fruit: (" + fruitX + ", " + fruitY + ")";
+	}
+
+	private void goTowardsDirection(Direction dir){
+		Log.log(Log.Level.DEBUG, "goTowardsDirection: going {dir}", dir.ordinal());
+		switch (dir){
+			case East:
+				goEastAI();
+				break;
+			case West:
+				goWestAI();
+				break;
+			case North:
+				goNorthAI();
+				break;
+			case South:
+				goSouthAI();
+				break;
+		}
+	}
+
+	public void goNorth(){
+		if(!isPaused && !isGameOver) {
+			if(playerDirections.size() < MAX_DIRECTIONS) {
+				Direction last = playerDirections.peekLast();
+				if(last != Direction.South && last != Direction.North) {
+					playerDirections.addLast(Direction.North);
+				}
+			}
+		}
+	}
+
+	public void goSouth(){
+		if(!isPaused && !isGameOver) {
+			if(playerDirections.size() < MAX_DIRECTIONS) {
+				Direction last = playerDirections.peekLast();
+				if(last != Direction.North && last != Direction.South) {
+					playerDirections.addLast(Direction.South);
+				}
+			}
+		}
+	}
+
+	public void goEast(){
+		if(!isPaused && !isGameOver) {
+			if(playerDirections.size() < MAX_DIRECTIONS) {
+				Direction last = playerDirections.peekLast();
+				if(last != Direction.West && last != Direction.East) {
+					playerDirections.addLast(Direction.East);
+				}
+			}
+		}
+	}
+
+	public void goWest(){
+		if(!isPaused && !isGameOver) {
+			if(playerDirections.size() < MAX_DIRECTIONS) {
+				Direction last = playerDirections.peekLast();
+				if(last != Direction.East && last != Direction.West) {
+					playerDirections.addLast(Direction.West);
+				}
+			}
+		}
+	}
+
+	private void goNorthAI(){
+		if(!isPaused && !isGameOver) {
+			if(directions.size() < MAX_DIRECTIONS) {
+				//Direction last = directions.peekLast();
+				directions.clear();
+				directions.addLast(Direction.North);
+				Log.log(Log.Level.DEBUG, "goNorthAI: {} queued", directions.size());
+			}
+		}
+	}
+
+	private void goSouthAI(){
+		if(!isPaused && !isGameOver) {
+			if(directions.size() < MAX_DIRECTIONS) {
+				//Direction last = directions.peekLast();
+				directions.clear();
+				directions.addLast(Direction.South);
+				Log.log(Log.Level.DEBUG, "goSouthAI: {} queued", directions.size());
+			}
+		}
+	}
+
+	private void goEastAI(){
+		if(!isPaused && !isGameOver) {
+			if(directions.size() < MAX_DIRECTIONS) {
+				//Direction last = directions.peekLast();
+				directions.clear();
+				directions.addLast(Direction.East);
+				Log.log(Log.Level.DEBUG, "goEastAI: {} queued", directions.size());
+			}
+		}
+	}
+
+	private void goWestAI(){
+		if(!isPaused && !isGameOver) {
+			if(directions.size() < MAX_DIRECTIONS) {
+				//Direction last = directions.peekLast();
+				directions.clear();
+				directions.addLast(Direction.West);
+				Log.log(Log.Level.DEBUG, "goWestAI: {} queued", directions.size());
+			}
+		}
+	}
+
+	/**
+	 * Gets the number of times AStar or idAStar reached a state that was
+	 * already closed, since the game was created.
+	 * @return The number of closed set hits.
+	 */
+	public long getClosedSetHits() {
+		return closedSet.getHits();
+	}
+
+	/**
+	 * Gets the number of occupied slots skipped in the closed set table
+	 * while looking up states, since the game was created.
+	 * @return The number of closed set collisions.
+	 */
+	public long getClosedSetCollisions() {
+		return closedSet.getCollisions();
+	}
+
+	/**
+	 * Gets the number of cycles, since the game was created, that found the
+	 * active plan still valid and kept it.
+	 * @return The number of reused plans.
+	 */
+	public long getPlansReused() {
+		return plansReused;
+	}
+
+	/**
+	 * Gets the number of cycles, since the game was created, that had to
+	 * search a new plan because there was none, the fruit moved or a snake
+	 * entered a planned cell.
+	 * @return The number of recomputed plans.
+	 */
+	public long getPlansRecomputed() {
+		return plansRecomputed;
+	}
+
+	/**
+	 * Keeps the path leading to a state as the active plan.
+	 * @param goalState The last state of the path.
+	 */
+	private void recordPlan(GameState goalState) {
+		int length = 0;
+		for (GameState s = goalState; s != null; s = s.parent)
+			length++;
+		if (planCells.length < length)
+			planCells = new int[length];
+		planAhead.clearAll();
+		int i = length;
+		for (GameState s = goalState; s != null; s = s.parent) {
+			int cell = Bitboard.cell(s.x, s.y);
+			planCells[--i] = cell;
+			planAhead.set(cell);
+		}
+		planAhead.clear(planCells[0]);
+		planLength = length;
+		planIndex = 0;
+		planFruit = Bitboard.cell(fruitX, fruitY);
+	}
+
+	/**
+	 * Checks whether the active plan can still be followed after this cycle's
+	 * moves, moving the plan forward by one step if so. Only the cells the
+	 * snakes entered in this cycle are looked at, so the check costs the
+	 * same whatever the length of the plan.
+	 * @return true if the plan is still valid
+	 */
+	private boolean advancePlan() {
+		if (planLength == 0 || planFruit != Bitboard.cell(fruitX, fruitY))
+			return false;
+		// The head must have taken the next step of the plan
+		Point head = snake.peekFirst();
+		int headCell = Bitboard.cell(head.x, head.y);
+		if (planIndex + 1 >= planLength || planCells[planIndex + 1] != headCell)
+			return false;
+		planIndex++;
+		planAhead.clear(headCell);
+		for (int i = 0; i < changedCellCount; i++) {
+			int cell = changedCells[i];
+			if (!planAhead.get(cell))
+				continue;
+			TileType type = board.getTile(Bitboard.cellX(cell), Bitboard.cellY(cell));
+			if (type == TileType.SnakeBody || type == TileType.SnakeHead)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the number of cells the incremental planner expanded since the
+	 * game was created, and during the last cycle.
+	 * @return The number of expansions, 0 outside the DStarLite mode.
+	 */
+	public long getPlannerExpansions() {
+		return incrementalPlanner == null ? 0 : incrementalPlanner.getExpansions();
+	}
+
+	public int getLastPlannerExpansions() {
+		return incrementalPlanner == null ? 0 : incrementalPlanner.getLastExpansions();
+	}
+
+	/**
+	 * Gets the number of cells pushed on the open list of the jump point
+	 * planner since the game was created, and during its last search.
+	 * @return The number of pushes, 0 outside the JPS mode.
+	 */
+	public long getJumpPointPushes() {
+		return jumpPointPlanner == null ? 0 : jumpPointPlanner.getPushes();
+	}
+
+	public int getLastJumpPointPushes() {
+		return jumpPointPlanner == null ? 0 : jumpPointPlanner.getLastPushes();
+	}
+
+	/**
+	 * Plans a path to the fruit with Jump Point Search, the current snake
+	 * cells being the obstacles. When they wall the fruit off, searches
+	 * again through time, as the bodies move away, and only then falls back
+	 * on AStar, which can also plan a way out when the fruit can not be reached.
+	 */
+	void jumpPointSearch() {
+		long searchStart = System.nanoTime();
+		planLength = 0;
+		Point head = snake.peekFirst();
+		int start = Bitboard.cell(head.x, head.y);
+		int goal = Bitboard.cell(fruitX, fruitY);
+		int length = jumpPointPlanner.findPath(start, goal, snakeObstacles());
+		int[] path = jumpPointPlanner.getPath();
+		if (length == 0) {
+			// The bodies may only be in the way until their tails have gone
+			spaceTimePlanner.setSnakes(snake, player_snake, MIN_SNAKE_LENGTH);
+			length = spaceTimePlanner.findPath(start, goal, snake.size());
+			path = spaceTimePlanner.getPath();
+		}
+		if (length == 0) {
+			Log.log(Log.Level.WARN, "Jump point search found no path, falling back on AStar");
+			jumpPointSearchFinished(searchStart);
+			AStar();
+			return;
+		}
+		GameState state = null;
+		for (int i = 0; i < length; i++)
+			state = GameState.pathStep(state, Bitboard.cellX(path[i]), Bitboard.cellY(path[i]));
+		generatePathFromState(state);
+		jumpPointSearchFinished(searchStart);
+	}
+
+	private void jumpPointSearchFinished(long searchStart) {
+		SolverMetrics.of(SolverMode.JPS).searchFinished(System.nanoTime() - searchStart,
+				jumpPointPlanner.getLastPushes(), jumpPointPlanner.getLastPeakOpen());
+	}
+
+	/**
+	 * Gets the cells covered by a snake.
+	 * @return A new bitboard of the cells of both snakes.
+	 */
+	private Bitboard snakeObstacles() {
+		Bitboard obstacles = new Bitboard();
+		for (Point p : snake)
+			obstacles.set(Bitboard.cell(p.x, p.y));
+		if (player_snake != null)
+			for (Point p : player_snake)
+				obstacles.set(Bitboard.cell(p.x, p.y));
+		return obstacles;
+	}
+
+	/**
+	 * Gets the number of searches through time, run when the bodies wall
+	 * the fruit off, and how many of them found no path either.
+	 * @return The number of searches.
+	 */
+	public long getSpaceTimeSearches() {
+		return spaceTimePlanner.getSearches();
+	}
+
+	public long getSpaceTimeFailures() {
+		return spaceTimePlanner.getFailures();
+	}
+
+	/**
+	 * Sets the share of the board above which the Hamiltonian cycle takes
+	 * over. 1 or more never takes over; the Hamiltonian mode follows the
+	 * cycle from the start whatever the ratio.
+	 * @param ratio The share of the board covered by the AI snake.
+	 */
+	public void setCycleFillRatio(double ratio) {
+		this.cycleFillRatio = ratio;
+	}
+
+	public double getCycleFillRatio() {
+		return cycleFillRatio;
+	}
+
+	/**
+	 * Gets the number of moves made along the Hamiltonian cycle, and of
+	 * those that cut across it towards the fruit.
+	 * @return The number of moves.
+	 */
+	public long getCycleMoves() {
+		return cycleMoves;
+	}
+
+	public long getCycleShortcuts() {
+		return cycleShortcuts;
+	}
+
+	/**
+	 * Checks whether the AI snake follows the Hamiltonian cycle, and starts
+	 * following it the first time it should.
+	 * @return true in the Hamiltonian mode, and once the snake fills enough of the board in the single snake modes
+	 */
+	private boolean isFollowingCycle() {
+		if (cycle != null)
+			return true;
+		if (mode != SolverMode.Hamiltonian && (mode == SolverMode.MCTS
+				|| snake.size() < cycleFillRatio * Bitboard.CELL_COUNT))
+			return false;
+		cycle = HamiltonianCycle.forBoard();
+		cycleAligned = isAlignedOnCycle();
+		return true;
+	}
+
+	/**
+	 * Picks the next move along the Hamiltonian cycle. With the body in
+	 * order along the tour, a move is safe as long as it stays ahead of the
+	 * head and behind the tail, so a free cell further along the tour is
+	 * taken when it does not run past the fruit or too close to the tail.
+	 * That only needs the positions of the head, the tail and the fruit. A
+	 * body left out of order by another solver is checked cell by cell
+	 * until it has lined up.
+	 */
+	private void followCycle() {
+		long searchStart = System.nanoTime();
+		Point head = snake.peekFirst();
+		int headCell = Bitboard.cell(head.x, head.y);
+		if (!cycleAligned)
+			cycleAligned = isAlignedOnCycle();
+		int next = cycleAligned ? alignedCycleMove(headCell) : unalignedCycleMove(headCell);
+		if (next < 0)
+			next = freeNeighbor(head);
+		directionMap.clear();
+		if (next >= 0) {
+			directionMap.put(headCell, getDirectionToCell(headCell, next));
+			cycleMoves++;
+			if (cycle.distance(headCell, next) > 1)
+				cycleShortcuts++;
+		}
+		SolverMetrics.of(SolverMode.Hamiltonian).searchFinished(System.nanoTime() - searchStart, 0, 0);
+	}
+
+	private int alignedCycleMove(int headCell) {
+		Point tail = snake.peekLast();
+		int tailCell = Bitboard.cell(tail.x, tail.y);
+		int fruitCell = Bitboard.cell(fruitX, fruitY);
+		int toTail = cycle.distance(headCell, tailCell);
+		int toFruit = cycle.distance(headCell, fruitCell);
+		int best = cycle.next(headCell);
+		int bestDistance = cycle.distance(headCell, best);
+		int x = Bitboard.cellX(headCell);
+		int y = Bitboard.cellY(headCell);
+		for (int i = 0; i < 4; i++) {
+			int nx = x + NEIGHBOR_DX[i];
+			int ny = y + NEIGHBOR_DY[i];
+			if (!Bitboard.inBoard(nx, ny) || isSnakeTile(nx, ny))
+				continue;
+			int cell = Bitboard.cell(nx, ny);
+			int d = cycle.distance(headCell, cell);
+			// One step along the tour is always safe, a longer one needs room left behind it
+			if (d == 0 || d > toFruit || (d > 1 && toTail - d <= SHORTCUT_MARGIN))
+				continue;
+			// Ahead of the best so far, or as far and on the fruit itself
+			if (d > bestDistance || (d == bestDistance && cell == fruitCell)) {
+				best = cell;
+				bestDistance = d;
+			}
+		}
+		return isSnakeTile(Bitboard.cellX(best), Bitboard.cellY(best)) ? -1 : best;
+	}
+
+	/**
+	 * Picks a move for a body that is not in order along the tour: a cell
+	 * from which following the tour reaches every body cell only after the
+	 * tail has left it, one fruit of growth included. The one closest to the
+	 * fruit along the tour wins.
+	 */
+	private int unalignedCycleMove(int headCell) {
+		int fruitCell = Bitboard.cell(fruitX, fruitY);
+		int best = -1;
+		int bestDistance = Integer.MAX_VALUE;
+		int x = Bitboard.cellX(headCell);
+		int y = Bitboard.cellY(headCell);
+		for (int i = 0; i < 4; i++) {
+			int nx = x + NEIGHBOR_DX[i];
+			int ny = y + NEIGHBOR_DY[i];
+			if (!Bitboard.inBoard(nx, ny) || isSnakeTile(nx, ny))
+				continue;
+			int cell = Bitboard.cell(nx, ny);
+			if (!isSafeToFollowFrom(cell))
+				continue;
+			int d = cycle.distance(cell, fruitCell);
+			if (d < bestDistance) {
+				best = cell;
+				bestDistance = d;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Checks that following the tour from a cell never catches up with the
+	 * body: the body cell j moves from the tail frees after j + 1 moves, one
+	 * more if a fruit is eaten on the way.
+	 */
+	private boolean isSafeToFollowFrom(int cell) {
+		int j = 0;
+		for (Iterator<Point> it = snake.descendingIterator(); it.hasNext(); j++) {
+			Point p = it.next();
+			if (cycle.distance(cell, Bitboard.cell(p.x, p.y)) < j + 1)
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Checks that the body runs forward along the tour from the tail to the head.
+	 */
+	private boolean isAlignedOnCycle() {
+		Point tail = snake.peekLast();
+		int tailCell = Bitboard.cell(tail.x, tail.y);
+		int previous = -1;
+		for (Iterator<Point> it = snake.descendingIterator(); it.hasNext(); ) {
+			Point p = it.next();
+			int d = cycle.distance(tailCell, Bitboard.cell(p.x, p.y));
+			if (d <= previous)
+				return false;
+			previous = d;
+		}
+		return true;
+	}
+
+	private boolean isSnakeTile(int x, int y) {
+		TileType type = board.getTile(x, y);
+		return type == TileType.SnakeBody || type == TileType.SnakeHead;
+	}
+
+	/**
+	 * Gets the number of moves the AStar and idAStar searches dropped
+	 * because they led into a pocket too small for the snake.
+	 * @return The number of pruned moves.
+	 */
+	public long getReachabilityPrunes() {
+		return reachability.getPruned();
+	}
+
+	/**
+	 * Gets the number of distances the heuristic field has set since the game was created.
+	 * @return The number of updates.
+	 */
+	public long getDistanceFieldUpdates() {
+		return distanceField.getUpdates();
+	}
+
+	/**
+	 * Starts the incremental planner over towards the current fruit.
+	 */
+	private void startIncrementalPlan() {
+		long searchStart = System.nanoTime();
+		Bitboard obstacles = new Bitboard();
+		for (Point p : snake)
+			obstacles.set(Bitboard.cell(p.x, p.y));
+		Point head = snake.peekFirst();
+		incrementalPlanner.reset(Bitboard.cell(head.x, head.y), Bitboard.cell(fruitX, fruitY), obstacles);
+		changedCellCount = 0;
+		followIncrementalPlan();
+		incrementalPlanFinished(searchStart);
+	}
+
+	/**
+	 * Moves the incremental planner to the new head and repairs it around
+	 * the cells the snake entered or left in this cycle.
+	 */
+	private void replanIncrementally() {
+		long searchStart = System.nanoTime();
+		Point head = snake.peekFirst();
+		incrementalPlanner.moveStart(Bitboard.cell(head.x, head.y));
+		for (int i = 0; i < changedCellCount; i++) {
+			int cell = changedCells[i];
+			TileType type = board.getTile(Bitboard.cellX(cell), Bitboard.cellY(cell));
+			incrementalPlanner.setBlocked(cell, type == TileType.SnakeBody || type == TileType.SnakeHead);
+		}
+		changedCellCount = 0;
+		followIncrementalPlan();
+		incrementalPlanFinished(searchStart);
+	}
+
+	private void incrementalPlanFinished(long searchStart) {
+		SolverMetrics.of(SolverMode.DStarLite).searchFinished(System.nanoTime() - searchStart,
+				incrementalPlanner.getLastExpansions(), incrementalPlanner.getLastPeakOpen());
+	}
+
+	/**
+	 * Plans the next move from the incremental planner. When the fruit can
+	 * not be reached, the snake moves to any free cell to stay alive.
+	 */
+	private void followIncrementalPlan() {
+		Point head = snake.peekFirst();
+		int headCell = Bitboard.cell(head.x, head.y);
+		int next = incrementalPlanner.computeShortestPath() ? incrementalPlanner.nextCell() : -1;
+		if (next < 0)
+			next = freeNeighbor(head);
+		directionMap.clear();
+		if (next >= 0)
+			directionMap.put(headCell, getDirectionToCell(headCell, next));
+	}
+
+	/**
+	 * Finds a cell next to a point that no snake covers.
+	 * @param point The point.
+	 * @return The cell index, or -1 if every neighbor is blocked.
+	 */
+	private int freeNeighbor(Point point) {
+		for (int i = 0; i < 4; i++) {
+			int x = point.x + NEIGHBOR_DX[i];
+			int y = point.y + NEIGHBOR_DY[i];
+			if (Bitboard.inBoard(x, y) && board.getTile(x, y) != TileType.SnakeBody
+					&& board.getTile(x, y) != TileType.SnakeHead)
+				return Bitboard.cell(x, y);
+		}
+		return -1;
+	}
+
+	/**
+	 * Records a cell whose tile changed in this cycle, for the incremental planner.
+	 * @param point The cell.
+	 */
+	private void cellChanged(Point point) {
+		if (changedCellCount < changedCells.length)
+			changedCells[changedCellCount++] = Bitboard.cell(point.x, point.y);
+	}
+
+	/**
+	 * Checks whether the head of a searched state has run into a snake. The
+	 * AI body is the one of the state itself, so cells its tail has left
+	 * on the way are free again. The cells covered when the search started,
+	 * the player's among them, are free once the moves of the state have
+	 * taken their tails past them.
+	 * @param state The state to check
+	 * @return true if the state is a crash
+	 */
+	private boolean isBlocked(GameState state){
+		if (state.snake.headOverlapsBody())
+			return true;
+		return spaceTimePlanner.freeAt(state.snake.peekFirst()) > state.moves;
+	}
+
+
+	/**
+	 * Check the list generated by AStar to add a direction
+	 * according to the head coordinates
+	 * @param head head of the snake to check
+	 */
+	private void checkActionList(Point head){
+		int checkSum = head.x + BoardPanel.COL_COUNT * head.y;
+		if (directionMap.containsKey(checkSum)){
+			Direction dir = directionMap.get(checkSum);
+			if(dir == null)
+				return;
+			directions.clear();
+			switch (dir){
+				case East:
+					directions.addLast(Direction.East);
+					break;
+				case West:
+					directions.addLast(Direction.West);
+					break;
+				case North:
+					directions.addLast(Direction.North);
+					break;
+				case South:
+					directions.addLast(Direction.South);
+					break;
+			}
+			// System.out.println("I'm at: " + head.x +", "+head.y+"\tgoing: "+directions.peekLast());
+			directionMap.remove(checkSum);
+		}
+	}
+
+	private void generatePathFromState(GameState currentState){
+		// Construct path from states
+		// Generate an action list: a list of directions at (x, y)
+		recordPlan(currentState);
+
+		//Clear the directions
+		int secondLastX = 0, secondLastY = 0;
+		directions.clear();
+		directionMap = new HashMap<>();
+		while (currentState.parent != null){
+			directionMap.put(currentState.parent.x + BoardPanel.COL_COUNT * currentState.parent.y, getStateDirection(currentState));
+			// System.out.println("At "+currentState.parent.x+", "+currentState.parent.y+"\tshould go "+getStateDirection(currentState));
+			if(currentState.parent.parent == null){
+				secondLastX = currentState.x;
+				secondLastY = currentState.y;
+			}
+			currentState = currentState.parent;
+		}
+		int lastX, lastY;
+		lastX = currentState.x;
+		lastY = currentState.y;
+		directionMap.put(currentState.x + BoardPanel.COL_COUNT * currentState.y, getInitialStateDirection(secondLastX, secondLastY, lastX, lastY));
+	}
+
+	/**
+	 *  AStar generates the direction at a given game instant
+	 *  This method is used each time the fruit is generated
+	 */
+	void AStar() {
+		long searchStart = System.nanoTime();
+		int openPeak = 0;
+		planLength = 0;
+		prepareSearch();
+
+		PriorityQueue<GameState> queue = new PriorityQueue<>();
+		queue.add(new GameState(this, 0, getHeuristic(snake)));
+		GameState currentState = null;
+		Log.log(Log.Level.DEBUG, "Initial position: {}, {}", snake.peekFirst().x, snake.peekFirst().y);
+		closedSet.clear();
+		boolean planned = false;
+		while (true) {
+			if(queue.isEmpty()){
+				Log.log(Log.Level.WARN, "Queue is empty!!!");
+				break;
+			}
+			currentState = queue.poll();
+			// Every state is goal-tested as it is polled, also one reached again by another path
+			if(isGoal(currentState.snake)) {
+				Log.log(Log.Level.DEBUG, "Goal: {}, {}", fruitX, fruitY);
+				planned = true;
+				break;
+			}
+			if(!closedSet.add(currentState.key)){
+				// Continues if this state has been visited
+				continue;
+			}
+			if(closedSet.size() > MAX_CLOSED_STATES){
+				// Head towards the most promising state found so far
+				Log.log(Log.Level.WARN, "AStar gave up after {} states", MAX_CLOSED_STATES);
+				planned = true;
+				break;
+			}
+			for (GameState neighborState : neighbors(currentState)){
+				// Out of board, crashed and pocketed neighbors are never generated
+				if (!closedSet.contains(neighborState.key))
+					queue.add(neighborState);
+			}
+			openPeak = Math.max(openPeak, queue.size());
+		}
+
+		if (planned)
+			generatePathFromState(currentState);
+		SolverMetrics.of(SolverMode.AStar).searchFinished(System.nanoTime() - searchStart, closedSet.size(), openPeak);
+	}
+
+	void idAStar() {
+		long searchStart = System.nanoTime();
+		long expanded = 0;
+		deepestPath = 0;
+		planLength = 0;
+		prepareSearch();
+		GameState currentState = new GameState(this, 0, getHeuristic(snake));
+		// System.out.println("Initial: Snake: " + currentState + "\tFruit: (" + fruitX +", " + fruitY +")");
+		GameState state = null;
+		int fValueLimit = getHeuristic(currentState.snake, 0);
+		final int maxSteps = BoardPanel.COL_COUNT + BoardPanel.ROW_COUNT;
+		// The deepening gets the same step budget wherever the heuristic starts
+		final int maxLimit = fValueLimit + maxSteps;
+		boolean foundCorrectly = false;
+
+		// Iterative deepening loop, skipped when the bodies wall the fruit off for good
+		while (fValueLimit <= maxLimit && fValueLimit < DistanceField.INF){
+			// System.out.println("Executing limit: " + fValueLimit);
+			closedSet.clear();
+			state = idAStar(currentState, fValueLimit);
+			expanded += closedSet.size();
+			if(state != null){
+				currentState = state;
+				foundCorrectly = true;
+				// System.out.println("Found at limit: " + fValueLimit);
+				break;
+			}else {
+				fValueLimit++;
+				// System.out.println("Changing to limit: " + fValueLimit);
+			}
+		}
+		if(foundCorrectly)
+			generatePathFromState(currentState);
+		else
+			Log.log(Log.Level.WARN, "idAStar failed to generate a path");
+		// Iterative deepening keeps no open list, the path being explored takes its place
+		SolverMetrics.of(SolverMode.idAstar).searchFinished(System.nanoTime() - searchStart, expanded, deepestPath);
+	}
+
+	/**
+	 * Generates a solution state from a gamestate and a ID limit
+	 * @param currentState the state to analyze
+	 * @param limit  the limit of iterative deepening
+	 * @return the game state which can lead to the fruit
+	 *         null if current state passes the limit or no possible path under the current state
+	 */
+	private GameState idAStar(GameState currentState, int limit){
+		// System.out.println("idAStar with depth: " + limit);
+		deepestPath = Math.max(deepestPath, currentState.moves);
+		if(isGoal(currentState.snake)){
+			// System.out.println("Found goal: " + currentState);
+			return currentState;
+		}
+		for (GameState neighbor: neighbors(currentState)){
+			if(getHeuristic(neighbor.snake, neighbor.moves) >= (limit - 1) || !closedSet.add(neighbor.key)){
+				// Do not explore if the state is too far or the stated has been visited
+				continue;
+			}
+			if(closedSet.size() > MAX_CLOSED_STATES)
+				return null;
+			// Explore the neighbor with decreased limit
+			GameState gs = idAStar(neighbor,limit - 1);
+			// game state is null if we found nothing under this state
+			if(gs != null){
+				// Construct the result
+				return gs;
+			}
+		}
+		// System.out.println("Returning null at level: " + limit);
+		return null;
+	}
+
+	private Direction getStateDirection(GameState state){
+		if(state.parent == null)
+			return null;
+		else{
+			int myX, myY, parentX, parentY;
+			myX = state.x;
+			myY = state.y;
+			parentX = state.parent.x;
+			parentY = state.parent.y;
+			if(myX == parentX + 1)
+				return Direction.East;
+			else if(myX == parentX - 1)
+				return Direction.West;
+			else if(myY == parentY + 1)
+				return Direction.South;
+			else if(myY == parentY - 1)
+				return Direction.North;
+			else{
+				Log.log(Log.Level.ERROR, "Error in state!");
+				return null;
+			}
+		}
+	}
+
+	private Direction getInitialStateDirection(int secondToLastX, int secondToLastY, int lastX, int lastY){
+		int  midX, midY;
+		midX = lastX;
+		midY = lastY;
+		if(secondToLastX == midX + 1)
+			return Direction.East;
+		else if(secondToLastX == midX - 1)
+			return Direction.West;
+		else if(secondToLastY == midY + 1)
+			return Direction.South;
+		else if(secondToLastY == midY - 1)
+			return Direction.North;
+		else{
+			Log.log(Log.Level.ERROR, "Error: wrong state to use initial direction");
+			return null;
+		}
+	}
+
+	/**
+	 * Generates the states a state can move to without crashing. When the
+	 * moves may lead into separate regions, the moves into a pocket smaller
+	 * than the snake are dropped as long as a move into more room is left.
+	 * @param state The state to move from
+	 * @return the neighbors worth searching
+	 */
+	public LinkedList<GameState> neighbors (GameState state) {
+		LinkedList<GameState> res = new LinkedList<>();
+		Direction[] allDirections =
+				{Direction.East, Direction.West, Direction.North, Direction.South};
+		int count = 0;
+		for (Direction direction : allDirections) {
+			GameState neighbor = generateNeighbor(state, direction);
+			if (neighbor == null || isBlocked(neighbor))
+				continue;
+			res.add(neighbor);
+			neighborCells[count++] = neighbor.snake.peekFirst();
+		}
+		if (count < 2 || !Reachability.mayDivide(state.snake.peekFirst(), state.snake, state.player_snake))
+			return res;
+		int kept = reachability.prune(neighborCells, count, state.snake, state.player_snake);
+		if (kept < count) {
+			// The kept cells are in the order of the states
+			int next = 0;
+			for (Iterator<GameState> it = res.iterator(); it.hasNext(); ) {
+				int cell = it.next().snake.peekFirst();
+				if (next < kept && cell == neighborCells[next])
+					next++;
+				else
+					it.remove();
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Generates a neighbor gamestate according to the indicated direction
+	 * @param state The gamestate from which we generate
+	 * @param dir direction of the neighbor wrt the state
+	 * @return the neighbor, or null if the move leaves the board
+	 */
+	GameState generateNeighbor(GameState state, Direction dir){
+//		 System.out.println("Generate neighbor of: "+state.x+", "+state.y+" Direction: "+dir);
+		int x = state.x, y = state.y;
+		switch (dir){
+			case East:
+				x++;
+				break;
+			case West:
+				x--;
+				break;
+			case South:
+				y++;
+				break;
+			case North:
+				y--;
+				break;
+		}
+		if (!Bitboard.inBoard(x, y))
+			return null;
+		GameState neighbor = new GameState(state, state.moves + 1, state.priority);
+		// Move the head and drop the old tail
+		neighbor.snake.step(Bitboard.cell(x, y));
+		neighbor.x = x;
+		neighbor.y = y;
+		neighbor.key = neighbor.snake.zobristKey();
+		// Calculate the new heuristic with the new head
+		neighbor.priority = neighbor.moves + getHeuristic(neighbor.snake, neighbor.moves);
+		// System.out.println("Neighbor is: "+neighbor.x+", "+neighbor.y);
+		return neighbor;
+	}
+
+	/**
+	 * Updates the game's logic.
+	 */
+	private void updateGame(SolverMode solverMode) {
+		/*
+		 * Gets the type of tile that the head of the snake collided with. If
+		 * the snake hit a wall, SnakeBody will be returned, as both conditions
+		 * are handled identically.
+		 */
+
+
+		TileType collision = updateSnake(snake,directions);
+
+		TileType player_collision = null;
+		if (solverMode == SolverMode.MCTS)
+			player_collision = updateSnake(player_snake, playerDirections);
+		/*
+		 * Here we handle the different possible collisions.
+		 *
+		 * Fruit: If we collided with a fruit, we increment the number of
+		 * fruits that we've eaten, update the moves, and spawn a new fruit.
+		 *
+		 * SnakeBody: If we collided with our tail (or a wall), we flag that
+		 * the game is over and pause the game.
+		 *
+		 * If no collision occurred, we simply decrement the number of points
+		 * that the next fruit will give us if it's high enough. This adds a
+		 * bit of skill to the game as collecting fruits more quickly will
+		 * yield a higher moves.
+		 */
+		int distance = Math.abs(fruitY-snake.peekFirst().y)+Math.abs(fruitX-snake.peekFirst().x);
+		if(collision == TileType.Fruit) {
+			fruitsEaten++;
+			score += nextFruitScore;
+			spawnFruit(solverMode);
+			tree = null;
+			distance = Math.abs(fruitY-snake.peekFirst().y)+Math.abs(fruitX-snake.peekFirst().x);
+			//mcts(new GameState(this, 0, getHeuristic(snake)), false);
+		} else if(collision == TileType.SnakeBody || player_collision == TileType.SnakeBody) {
+			endGame();
+		}else if(player_collision == TileType.Fruit) {
+			fruitsEaten++;
+			playerFruitsEaten++;
+			score += nextFruitScore;
+			spawnFruit(solverMode);
+			distance = Math.abs(fruitY-snake.peekFirst().y)+Math.abs(fruitX-snake.peekFirst().x);
+			tree = null;
+			//mcts(new GameState(this, 0, getHeuristic(snake)), false);
+		} else {
+			if(nextFruitScore>10) {
+				nextFruitScore--;
+			}
+		}
+
+		/*
+		 * Only the MCTS mode has a player snake to react to, so only it
+		 * replans on every cycle.
+		 */
+		if (solverMode == SolverMode.MCTS && !isGameOver) {
+			if(distance<10){
+				// Search again only if the plan can no longer be followed
+				if (advancePlan()) {
+					plansReused++;
+				} else {
+					plansRecomputed++;
+					metrics.replanned();
+					idAStar();
+				}
+			}else{
+				mcts(new GameState(this, 0, getHeuristic(snake)), false);
+			}
+		}
+
+		/*
+		 * Once the snake follows the Hamiltonian cycle, it picks every move
+		 * from the cycle and the searching solvers stand down.
+		 */
+		boolean followingCycle = !isGameOver && isFollowingCycle();
+		if (followingCycle)
+			followCycle();
+
+		/*
+		 * The incremental planner follows every move at the cost of the few
+		 * cells that changed. A new fruit has already restarted it.
+		 */
+		if (solverMode == SolverMode.DStarLite && !isGameOver && !followingCycle && collision != TileType.Fruit)
+			replanIncrementally();
+
+		/*
+		 * A jump point plan is kept while no snake blocks it, and searched
+		 * again as soon as one does. A new fruit has already replanned.
+		 */
+		if (solverMode == SolverMode.JPS && !isGameOver && !followingCycle && collision != TileType.Fruit) {
+			if (advancePlan()) {
+				plansReused++;
+			} else {
+				plansRecomputed++;
+				metrics.replanned();
+				jumpPointSearch();
+			}
+		}
+		changedCellCount = 0;
+	}
+
+	public Direction getDirection(LinkedList<Direction> directions){
+		return directions.peekFirst();
+	}
+	/**
+	 * Updates the snake's position and size.
+	 * @return Tile tile that the head moved into.
+	 */
+	private TileType updateSnake(LinkedList<Point> snake_update,LinkedList<Direction> list_direction) {
+
+		/*
+		 * Here we peek at the next direction rather than polling it. While
+		 * not game breaking, polling the direction here causes a small bug
+		 * where the snake's direction will change after a game over (though
+		 * it will not move).
+		 */
+		if(directions.isEmpty())
+			return null;
+
+		Direction direction = getDirection(list_direction);
+		//directions.peekFirst();
+		/*
+		 * Here we calculate the new point that the snake's head will be at
+		 * after the update.
+		 */
+		Point head = new Point(snake_update.peekFirst());
+		Log.log(Log.Level.DEBUG, "({},{}) going {dir}", head.x, head.y, direction.ordinal());
+		switch(direction) {
+			case North:
+				head.y--;
+				break;
+
+			case South:
+				head.y++;
+				break;
+
+			case West:
+				head.x--;
+				break;
+
+			case East:
+				head.x++;
+				break;
+		}
+
+		/*
+		 * If the snake has moved out of bounds ('hit' a wall), we can just
+		 * return that it's collided with itself, as both cases are handled
+		 * identically.
+		 */
+		if(head.x < 0 || head.x >= BoardPanel.COL_COUNT || head.y < 0 || head.y >= BoardPanel.ROW_COUNT) {
+			Log.log(Log.Level.INFO, "Touching the wall");
+			return TileType.SnakeBody; //Pretend we collided with our body.
+		}
+
+		/*
+		 * Here we get the tile that was located at the new head position and
+		 * remove the tail from of the snake and the board if the snake is
+		 * long enough, and the tile it moved onto is not a fruit.
+		 *
+		 * If the tail was removed, we need to retrieve the old tile again
+		 * increase the tile we hit was the tail piece that was just removed
+		 * to prevent a false game over.
+		 */
+		TileType old = board.getTile(head.x, head.y);
+		if(old != TileType.Fruit && snake.size() > MIN_SNAKE_LENGTH) {
+			Point tail = snake_update.removeLast();
+			board.setTile(tail, null);
+			cellChanged(tail);
+			old = board.getTile(head.x, head.y);
+		}
+
+		/*
+		 * Update the snake's position on the board if we didn't collide with
+		 * our tail:
+		 *
+		 * 1. Set the old head position to a body tile.
+		 * 2. Add the new head to the snake.
+		 * 3. Set the new head position to a head tile.
+		 *
+		 * If more than one direction is in the queue, poll it to read new
+		 * input.
+		 */
+		if(old != TileType.SnakeBody) {
+			board.setTile(snake_update.peekFirst(), TileType.SnakeBody);
+			snake_update.push(head);
+			board.setTile(head, TileType.SnakeHead);
+			cellChanged(head);
+			if(list_direction.size() > 1) {
+				list_direction.poll();
+			}
+		}
+
+		return old;
+	}
+
+	/**
+	 * Resets the game's variables to their default states and starts a new game.
+	 */
+	private void resetGame(SolverMode solverMode) {
+		/*
+		 * Reset the moves statistics. (Note that nextFruitPoints is reset in
+		 * the spawnFruit function later on).
+		 */
+		this.score = 0;
+		this.fruitsEaten = 0;
+		this.playerFruitsEaten = 0;
+
+		// A new snake starts short, the cycle takes over again when it is long enough
+		this.cycle = null;
+
+		/*
+		 * Split the random streams of this game from its seed, starting with
+		 * the fruit spawner's.
+		 */
+		if (!seedFixed)
+			this.seed = RandomStreams.newSeed();
+		this.streams = new RandomStreams(seed);
+		this.random = streams.split();
+
+		/*
+		 * Reset both the new game and game over flags.
+		 */
+		this.isNewGame = false;
+		this.isGameOver = false;
+
+		/*
+		 * Create the head at the center of the board.
+		 */
+		Point head = new Point(BoardPanel.COL_COUNT / 2, BoardPanel.ROW_COUNT / 2);
+		Point player_head = null;
+		if (solverMode == SolverMode.MCTS)
+			player_head = new Point(3,3);
+		/*
+		 * Clear the snake list and add the head.
+		 */
+		snake.clear();
+		snake.add(head);
+		if (solverMode == SolverMode.MCTS){
+			player_snake.clear();
+			player_snake.add(player_head);
+			playerDirections.addLast(Direction.East);
+		}
+		/*
+		 * Clear the board and add the head.
+		 */
+		board.clearBoard();
+		board.setTile(head, TileType.SnakeHead);
+		if (solverMode == SolverMode.MCTS)
+			board.setTile(player_head,TileType.SnakeHead);
+		/*
+		 * Spawn a new fruit.
+		 */
+		spawnFruit(solverMode);
+	}
+
+	/**
+	 * Gets the flag that indicates whether or not we're playing a new game.
+	 * @return The new game flag.
+	 */
+	public boolean isNewGame() {
+		return isNewGame;
+	}
+
+	/**
+	 * Gets the flag that indicates whether or not the game is over.
+	 * @return The game over flag.
+	 */
+	public boolean isGameOver() {
+		return isGameOver;
+	}
+
+	/**
+	 * Gets the flag that indicates whether or not the game is paused.
+	 * @return The paused flag.
+	 */
+	public boolean isPaused() {
+		return isPaused;
+	}
+
+	public boolean isGoal(SnakeBuffer snake) {
+		return (snake.headX() == fruitX) && (snake.headY() == fruitY);
+	}
+
+	/**
+	 * Gets the walking distance from the head of a snake to the fruit,
+	 * through the cells of the bodies that are free by the time they are reached.
+	 */
+	public int getHeuristic(LinkedList<Point> snake){
+		return distanceField.distance(Bitboard.cell(snake.peekFirst().x, snake.peekFirst().y), 0);
+	}
+
+	/**
+	 * Gets the walking distance from the head of a searched snake to the fruit.
+	 * @param snake The snake.
+	 * @param moves The number of moves since the search started.
+	 * @return The distance, DistanceField.INF if the fruit can not be reached.
+	 */
+	public int getHeuristic(SnakeBuffer snake, int moves){
+		return distanceField.distance(snake.peekFirst(), moves);
+	}
+
+	/**
+	 * Records when the snake cells free up, for the planners to walk through
+	 * the bodies, and rebuilds the heuristic field from the free times.
+	 */
+	private void prepareSearch() {
+		spaceTimePlanner.setSnakes(snake, player_snake, MIN_SNAKE_LENGTH);
+		distanceField.reset(Bitboard.cell(fruitX, fruitY), spaceTimePlanner);
+	}
+
+	/**
+	 * Spawns a new fruit onto the board.
+	 */
+	private void spawnFruit(SolverMode solverMode) {
+
+
+		//Reset the moves for this fruit to 100.
+		this.nextFruitScore = 100;
+
+		/*
+		 * Get a random index based on the number of free spaces left on the board.
+		 */
+		int freeCells = BoardPanel.COL_COUNT * BoardPanel.ROW_COUNT - snake.size();
+		if (freeCells <= 0) {
+			// The snake covers the whole board, there is nowhere left to go
+			endGame();
+			return;
+		}
+		int index = random.nextInt(freeCells);
+
+		/*
+		 * While we could just as easily choose a random index on the board
+		 * and check it if it's free until we find an empty one, that method
+		 * tends to hang if the snake becomes very large.
+		 *
+		 * This method simply loops through until it finds the nth free index
+		 * and selects uses that. This means that the game will be able to
+		 * locate an index at a relatively constant rate regardless of the
+		 * size of the snake.
+		 */
+		int freeFound = -1;
+		for(int x = 0; x < BoardPanel.COL_COUNT; x++) {
+			for(int y = 0; y < BoardPanel.ROW_COUNT; y++) {
+				TileType type = board.getTile(x, y);
+				if(type == null || type == TileType.Fruit) {
+					if(++freeFound == index) {
+						board.setTile(x, y, TileType.Fruit);
+						fruitX = x;
+						fruitY = y;
+						board.fruitX = x;
+						board.fruitY = y;
+						break;
+					}
+				}
+			}
+		}
+
+
+		prepareSearch();
+
+		// The cycle needs no plan, the next cycle picks the move
+		if (isFollowingCycle()) {
+			followCycle();
+			return;
+		}
+
+		// Use A Star to generate a path to the goal
+		switch (solverMode){
+			case AStar:
+				AStar();
+				break;
+			case idAstar:
+				idAStar();
+				break;
+			case DStarLite:
+				startIncrementalPlan();
+				break;
+			case JPS:
+				jumpPointSearch();
+				break;
+			case MCTS:
+				tree = null;
+				//mcts(new GameState(this, 0, getHeuristic(snake)), true);
+				break;
+		}
+	}
+
+	/**
+	 * Gets the current moves.
+	 * @return The moves.
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Gets the number of fruits eaten.
+	 * @return The fruits eaten.
+	 */
+	public int getFruitsEaten() {
+		return fruitsEaten;
+	}
+
+	/**
+	 * Gets the number of fruits eaten by the player snake, counted in the fruits eaten too.
+	 * @return The fruits eaten by the player snake.
+	 */
+	public int getPlayerFruitsEaten() {
+		return playerFruitsEaten;
+	}
+
+	/**
+	 * Gets the next fruit moves.
+	 * @return The next fruit moves.
+	 */
+	public int getNextFruitScore() {
+		return nextFruitScore;
+	}
+
+	/**
+	 * Gets the current direction of the snake.
+	 * @return The current direction.
+	 */
+	public Direction getDirection() {
+		return directions.peek();
+	}
+
+
+
+	private void greedyPath() {
+		Log.log(Log.Level.DEBUG, "Greedy path called! Fruit: {}, {}", fruitX, fruitY);
+		Point head = snake.peekFirst();
+		Log.log(Log.Level.DEBUG, "Head: {}, {}", head.x, head.y);
+		double headX = head.getY(), headY = head.getX();
+		int fruitX = this.fruitY;
+		int fruitY = this.fruitX;
+		if (headX >  fruitX) {
+			if(board.getTile((int)headX - 1, (int)headY) != TileType.SnakeBody){
+				// North is clear
+				Log.log(Log.Level.DEBUG, "Going north");
+				goNorthAI();
+			} else {
+				// Take a detour towards west or east
+				detourWE();
+			}
+		} else if (headX <  fruitX){
+			if (board.getTile((int)headX + 1, (int)headY) != TileType.SnakeBody){
+				// South is clear
+				Log.log(Log.Level.DEBUG, "Going south");
+				goSouthAI();
+			} else {
+				// Take a detour towards west or east
+				detourWE();
+			}
+
+		} else {
+			// The fruit and the head is at the same line
+			if (headY < fruitY) {        // ...H......F...
+				if (board.getTile((int)headX, (int)headY + 1) != TileType.SnakeBody){
+					// East is clear
+					Log.log(Log.Level.DEBUG, "Going east");
+					goEastAI();
+				} else {
+					// Take a detour towards north or south
+					detourNS();
+				}
+			} else {
+				if (board.getTile((int)headX, (int)headY - 1) != TileType.SnakeBody){
+					// West is clear
+					Log.log(Log.Level.DEBUG, "Going west");
+					goWestAI();
+				} else {
+					// Take a detour towards north or south
+					detourNS();
+				}
+			}
+		}
+	}
+
+	private void detourWE() {
+		Log.log(Log.Level.DEBUG, "Detour called");
+		Point head = snake.peekFirst();
+		double headX = head.getY(), headY = head.getX();
+		int fruitX = this.fruitY;
+		int fruitY = this.fruitX;
+		// North or south is blocked here, go towards west or east to take a detour (if possible)
+		if (board.getTile((int)headX, (int)headY + 1) != TileType.SnakeBody){
+			goEastAI();
+		} else if (board.getTile((int)headX, (int)headY - 1) != TileType.SnakeBody) {
+			goWestAI();
+		}
+		// Else the snake is in a tunnel... The only way out is to go straight
+		// Do nothing here to go straight
+	}
+
+	private void detourNS() {
+		Log.log(Log.Level.DEBUG, "Detour called");
+		Point head = snake.peekFirst();
+		double headX = head.getY(), headY = head.getX();
+		int fruitX = this.fruitY;
+		int fruitY = this.fruitX;
+		if (board.getTile((int)headX + 1, (int)headY) != TileType.SnakeBody){
+			goSouthAI();
+		} else if (board.getTile((int)headX - 1, (int)headY) != TileType.SnakeBody) {
+			goNorthAI();
+		}
+		// Else the snake is in a tunnel... The only way out is to go straight
+		// Do nothing here to go straight
+	}
+
+
+	/**
+	 *  -------------------------------------------------------------------------------------------
+	 *  *****************************  Monte Carlo Tree Search (MCTS) *****************************
+	 *  -------------------------------------------------------------------------------------------
+	 */
+
+	/**
+	 * The number of cycles per second the engine is assumed to run at until
+	 * told otherwise, the same as the window's logic timer.
+	 */
+	private static final float DEFAULT_TICKS_PER_SECOND = 9.0f;
+
+	/**
+	 * The number of iterations the last call of mcts finished, over all trees.
+	 */
+	private int MCTSLoopCounter;
+	private Tree tree;
+
+	/**
+	 * The number of nodes a tree may hold unless told otherwise, about 40 MB.
+	 */
+	private static final int DEFAULT_MCTS_NODE_CAPACITY = 1 << 20;
+
+	/**
+	 * The number of nodes of the node pools, which are allocated on the first
+	 * call of mcts and reused by every tree after that.
+	 */
+	private int mctsNodeCapacity = DEFAULT_MCTS_NODE_CAPACITY;
+
+	/**
+	 * The pool holding the tree kept from cycle to cycle.
+	 */
+	private NodePool nodes;
+
+	/**
+	 * The pools of the extra trees of root-parallel MCTS, emptied every cycle.
+	 */
+	private NodePool[] workerNodes;
+
+	/**
+	 * The length of one logic cycle in milliseconds.
+	 */
+	private float millisPerTick = 1000.0f / DEFAULT_TICKS_PER_SECOND;
+
+	/**
+	 * The share of a logic cycle that MCTS may spend searching.
+	 */
+	private double mctsTickShare = 0.5;
+
+	/**
+	 * The search time per cycle in nanoseconds, derived from the two fields above.
+	 */
+	private long mctsBudgetNanos = (long) (millisPerTick * mctsTickShare * 1000000L);
+
+	/**
+	 * If positive, each tree runs exactly this many iterations per call of
+	 * mcts instead of searching until the deadline.
+	 */
+	private int mctsIterationLimit = 0;
+
+	/**
+	 * The table sharing nodes between move orders that reach the same
+	 * position, or null to search a plain tree.
+	 */
+	private TranspositionTable transpositions;
+
+	/**
+	 * The number of nodes MCTS has created since the game started.
+	 */
+	private final AtomicLong mctsNodesCreated = new AtomicLong();
+
+	/**
+	 * Whether MCTS keeps growing its tree in the background between cycles.
+	 */
+	private boolean pondering = false;
+
+	/**
+	 * The background search started at the end of the last call of mcts.
+	 */
+	private Future<Integer> ponderTask;
+
+	/**
+	 * Set to tell the background search to finish its current iteration and stop.
+	 */
+	private volatile boolean ponderStop;
+
+	/**
+	 * The number of iterations the background search ran before the last cycle.
+	 */
+	private int lastPonderIterations;
+
+	/**
+	 * How the MCTS iterations are spread over threads.
+	 */
+	private MCTSParallelism parallelism = MCTSParallelism.Sequential;
+
+	/**
+	 * The number of trees searched at once in the parallel modes.
+	 */
+	private int mctsThreads = 1;
+
+	/**
+	 * The pool the parallel searches and pondering run on. Games hosted
+	 * together share one, so their solvers can not take more than its threads.
+	 */
+	private ForkJoinPool solverPool = ForkJoinPool.commonPool();
+
+	/**
+	 * Sets how the MCTS solver uses threads.
+	 * @param parallelism The parallel mode.
+	 * @param threads The number of trees (or threads) searching at once.
+	 */
+	public void setMCTSParallelism(MCTSParallelism parallelism, int threads) {
+		this.parallelism = parallelism;
+		this.mctsThreads = Math.max(1, threads);
+	}
+
+	/**
+	 * Sets the pool the parallel searches and pondering run on.
+	 * @param pool The pool, shared with other games or not.
+	 */
+	public void setSolverPool(ForkJoinPool pool) {
+		stopPondering();
+		this.solverPool = pool;
+	}
+
+	/**
+	 * Sets the length of one logic cycle, which MCTS takes its deadline from.
+	 * @param millisPerTick The number of milliseconds per cycle.
+	 */
+	public void setMillisPerTick(float millisPerTick) {
+		this.millisPerTick = millisPerTick;
+		this.mctsBudgetNanos = (long) (millisPerTick * mctsTickShare * 1000000L);
+	}
+
+	/**
+	 * Sets the share of each logic cycle that MCTS may spend searching.
+	 * @param share A fraction of the cycle, between 0 and 1.
+	 */
+	public void setMCTSTickShare(double share) {
+		this.mctsTickShare = share;
+		this.mctsBudgetNanos = (long) (millisPerTick * mctsTickShare * 1000000L);
+	}
+
+	/**
+	 * Makes every tree run a fixed number of iterations per cycle instead of
+	 * searching until the deadline. Used when runs have to be repeatable.
+	 * @param iterations The number of iterations, or 0 to search until the deadline.
+	 */
+	public void setMCTSIterationLimit(int iterations) {
+		this.mctsIterationLimit = Math.max(0, iterations);
+	}
+
+	/**
+	 * Turns pondering on or off. While pondering, MCTS keeps searching the
+	 * player's possible replies in the background until the next cycle, and
+	 * the next cycle starts from the subtree of the reply that was played.
+	 * @param pondering Whether or not to ponder between cycles.
+	 */
+	public void setPondering(boolean pondering) {
+		this.pondering = pondering;
+		if (!pondering)
+			stopPondering();
+	}
+
+	/**
+	 * Turns the MCTS transposition table on or off. With the table, positions
+	 * reached by different move orders share one node, turning the tree into
+	 * a graph. A running ponder is stopped first, as it reads the old table.
+	 * @param capacity The number of positions the table can hold, or 0 to turn it off.
+	 */
+	public void setMCTSTranspositions(int capacity) {
+		stopPondering();
+		this.transpositions = capacity > 0 ? new TranspositionTable(capacity) : null;
+	}
+
+	/**
+	 * Gets the share of MCTS expansions that found their position already in
+	 * the transposition table.
+	 * @return The hit rate, or 0 when the table is off.
+	 */
+	public double getTranspositionHitRate() {
+		return transpositions == null ? 0.0 : transpositions.getHitRate();
+	}
+
+	/**
+	 * Sets the number of nodes an MCTS tree may hold. Once a tree is half
+	 * full it is started over at the next cycle.
+	 * @param capacity The number of nodes.
+	 */
+	public void setMCTSNodeCapacity(int capacity) {
+		stopPondering();
+		this.mctsNodeCapacity = Math.max(1, capacity);
+		this.nodes = null;
+		this.workerNodes = null;
+		this.tree = null;
+	}
+
+	/**
+	 * Gets the number of nodes in the tree kept from cycle to cycle, including
+	 * the nodes above the root that can no longer be reached.
+	 * @return The number of nodes.
+	 */
+	public int getMCTSTreeSize() {
+		return nodes == null ? 0 : nodes.size();
+	}
+
+	/**
+	 * Gets the number of nodes MCTS has created since the game started.
+	 * @return The number of nodes.
+	 */
+	public long getMCTSNodesCreated() {
+		return mctsNodesCreated.get();
+	}
+
+	/**
+	 * Gets the number of iterations the background search ran between the
+	 * last two cycles.
+	 * @return The number of iterations.
+	 */
+	public int getLastPonderIterations() {
+		return lastPonderIterations;
+	}
+
+	/**
+	 * Gets the number of iterations the last call of mcts finished, summed
+	 * over all the threads that searched.
+	 * @return The number of iterations.
+	 */
+	public int getLastMCTSIterations() {
+		return MCTSLoopCounter;
+	}
+
+	public void mcts(GameState gameState, boolean isStart) {
+		long searchStart = System.nanoTime();
+		long nodesBefore = mctsNodesCreated.get();
+//		System.out.println("AI snake at: " + gameState.snake.peekFirst());
+		Log.log(Log.Level.DEBUG, "GameEngine: player:{cell}  AI:{cell} Fruit: ({}, {})",
+				gameState.player_snake.peekFirst(), gameState.snake.peekFirst(), fruitX, fruitY);
+		if (nodes == null)
+			nodes = new NodePool(mctsNodeCapacity);
+		// Initialize from a snake game state
+		if (tree == null){
+			newTree(gameState);
+		} else {
+			/*
+			 * Here is the state where we move down the tree according to what the
+			 * player does during the last cycle.
+			 */
+			if(gameState.snake.peekFirst() != tree.rootState.snake.peekFirst()||nodes.childCount(tree.getRoot()) == 0){
+				/*System.out.println("===inconsistent feedback===");
+				System.out.println("current head position: ("+gameState.snake.headX()+","+gameState.snake.headY()+")");
+				System.out.println("root head position: ("+tree.rootState.snake.headX()+","+tree.rootState.snake.headY()+")");
+				System.err.println("Inconsistent state!");
+				System.exit(999);*/
+				Log.log(Log.Level.INFO, "Restarting the tree beacause of the inconsistent state");
+				newTree(gameState);
+			}else if(nodes.size() > nodes.capacity() / 2){
+				Log.log(Log.Level.INFO, "Restarting the tree because the node pool is half full");
+				newTree(gameState);
+			}else{
+				Log.log(Log.Level.DEBUG, "Player snake should be at: {cell}", tree.rootState.playerSnake.peekFirst());
+				Log.log(Log.Level.DEBUG, "Player snake is at: {cell}", gameState.player_snake.peekFirst());
+				boolean assigned = false;
+				Log.log(Log.Level.DEBUG, "#####Player Children######");
+				for (int i = 0; i < nodes.childCount(tree.getRoot()); i++){
+					int node = nodes.child(tree.getRoot(), i);
+					Log.log(Log.Level.DEBUG, "{cell}", nodes.getMove(node));
+					if (nodes.getMove(node) == gameState.player_snake.peekFirst()){
+						tree.setRoot(node);
+						assigned = true;
+						break;
+					}
+				}
+				Log.log(Log.Level.DEBUG, "#####################");
+				if(!assigned){
+					Log.log(Log.Level.INFO, "Restaring the tree beacuse it Can not assign a child node!");
+					newTree(gameState);
+					//System.exit(999);
+				}
+			}
+		}
+
+		int rootNode = tree.getRoot();
+		if (parallelism == MCTSParallelism.Root && mctsThreads > 1) {
+			MCTSLoopCounter = searchRootParallel(tree);
+		} else if (parallelism == MCTSParallelism.Tree && mctsThreads > 1) {
+			MCTSLoopCounter = searchSharedTree(tree);
+		} else {
+			MCTSLoopCounter = searchTree(tree, new SearchScratch(streams.split()), false, transpositions);
+		}
+		if (Log.isEnabled(Log.Level.DEBUG)) {
+			Log.log(Log.Level.DEBUG, "=====Root Node=====");
+			Log.log(Log.Level.DEBUG, "Iterations: {} (pondered: {})", MCTSLoopCounter, lastPonderIterations);
+			Log.log(Log.Level.DEBUG, "{cell}", tree.rootState.snake.peekFirst());
+			Log.log(Log.Level.DEBUG, "Score:{f}", Log.bits(nodes.getScore(rootNode)));
+			Log.log(Log.Level.DEBUG, "==================");
+			Log.log(Log.Level.DEBUG, "=====Children=====");
+			for (int i = 0; i < nodes.childCount(rootNode); i++){
+				int n = nodes.child(rootNode, i);
+				Log.log(Log.Level.DEBUG, "{cell}", nodes.getMove(n));
+				Log.log(Log.Level.DEBUG, "Score:{f}", Log.bits(nodes.getScore(n)));
+			}
+			Log.log(Log.Level.DEBUG, "==================");
+		}
+
+		// Return the best predictable direction so far
+		int winnerNode = getMostVisitedChild(rootNode, gameState.snake);
+		if (winnerNode == NodePool.NONE) {
+			Log.log(Log.Level.WARN, "The AI snake has no move left");
+			tree = null;
+			mctsFinished(searchStart, nodesBefore);
+			return;
+		}
+
+		Log.log(Log.Level.DEBUG, "=====Final Winner Node=====");
+		Log.log(Log.Level.DEBUG, "{cell}", nodes.getMove(winnerNode));
+		Log.log(Log.Level.DEBUG, "Score:{f}", Log.bits(nodes.getScore(winnerNode)));
+		Log.log(Log.Level.DEBUG, "==================");
+		Direction dir = getDirectionToCell(tree.rootState.snake.peekFirst(), nodes.getMove(winnerNode));
+		tree.setRoot(winnerNode);
+		goTowardsDirection(dir);
+		Log.log(Log.Level.DEBUG, "Direction: {dir}", dir.ordinal());
+		if (pondering)
+			startPondering(tree);
+		mctsFinished(searchStart, nodesBefore);
+		/*
+		 * Descend one level in the tree
+		 * The root here is a player node, we are sure that the AI snake will go towards the assigned direction
+		 * Have to descend again at the beginning of another call of MCTS and see what the player does later
+		 * */
+	}
+
+	private void mctsFinished(long searchStart, long nodesBefore) {
+		SolverMetrics metrics = SolverMetrics.of(SolverMode.MCTS);
+		metrics.searchFinished(System.nanoTime() - searchStart, mctsNodesCreated.get() - nodesBefore, 0);
+		metrics.playoutsFinished(MCTSLoopCounter, getMCTSTreeSize());
+	}
+
+	/**
+	 * Grows a new tree from the current position for a fixed number of
+	 * iterations, without choosing a move. Used by the benchmarks.
+	 * @param iterations The number of iterations
+	 * @return the number of nodes in the tree
+	 */
+	int searchCurrentPosition(int iterations) {
+		if (nodes == null)
+			nodes = new NodePool(mctsNodeCapacity);
+		newTree(new GameState(this, 0, getHeuristic(snake)));
+		SearchScratch scratch = new SearchScratch(streams.split());
+		for (int i = 0; i < iterations; i++) {
+			runIteration(tree, scratch, false, transpositions);
+		}
+		return nodes.size();
+	}
+
+	/**
+	 * Starts a new tree whose root is the current game state, with the AI to move
+	 * @param gameState The current game state
+	 */
+	private void newTree(GameState gameState) {
+		tree = new Tree(nodes);
+		if (transpositions != null)
+			transpositions.clear();
+		// Initialize root here
+		State rootState = new State();
+		rootState.board = board;
+		rootState.snake = gameState.snake;
+		rootState.playerSnake = gameState.player_snake;
+		rootState.isAI = true;
+		tree.reset(rootState);
+	}
+
+	/**
+	 * Picks the most visited child of the AI root. Moves onto the current body
+	 * of the AI snake are only picked if every move is one.
+	 * @param rootNode The root, with the AI to move
+	 * @param body The AI snake in the game
+	 * @return the chosen child, or NONE if the root has no child
+	 */
+	private int getMostVisitedChild(int rootNode, SnakeBuffer body) {
+		int best = NodePool.NONE;
+		int bestCrash = NodePool.NONE;
+		for (int i = 0; i < nodes.childCount(rootNode); i++) {
+			int child = nodes.child(rootNode, i);
+			if (body.contains(nodes.getMove(child))) {
+				if (bestCrash == NodePool.NONE || nodes.getVisits(child) > nodes.getVisits(bestCrash))
+					bestCrash = child;
+			} else if (best == NodePool.NONE || nodes.getVisits(child) > nodes.getVisits(best)) {
+				best = child;
+			}
+		}
+		return best != NodePool.NONE ? best : bestCrash;
+	}
+
+	/**
+	 * Gets the direction leading from a cell to a neighbouring one
+	 * @param from The cell index of the head
+	 * @param to The cell index the head moves to
+	 * @return the direction of the move
+	 */
+	private Direction getDirectionToCell(int from, int to) {
+		if (Bitboard.cellX(from) == Bitboard.cellX(to))
+			return Bitboard.cellY(from) > Bitboard.cellY(to) ? Direction.North : Direction.South;
+		// The same Y
+		return Bitboard.cellX(from) > Bitboard.cellX(to) ? Direction.West : Direction.East;
+	}
+
+	/**
+	 * What one thread needs to run MCTS iterations: the state the moves from
+	 * the root are replayed on, the path of nodes walked from the root, and
+	 * a random stream of its own. One instance per thread, reused for every
+	 * iteration. Created on the thread calling mcts, so the streams are split
+	 * in the same order in every run.
+	 */
+	private static class SearchScratch {
+		final RandomGenerator random;
+		final State state = new State();
+		final int[] moves = new int[4];
+		final Reachability reachability = new Reachability();
+		int[] path = new int[64];
+		int depth;
+
+		SearchScratch(RandomGenerator random) {
+			this.random = random;
+		}
+
+		void push(int node) {
+			if (depth == path.length)
+				path = Arrays.copyOf(path, depth * 2);
+			path[depth++] = node;
+		}
+
+		boolean onPath(int node) {
+			for (int i = 0; i < depth; i++) {
+				if (path[i] == node)
+					return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Runs select/expand/simulate/backpropagate cycles on one tree until the
+	 * search budget of this cycle is spent
+	 * @param tree The tree to grow
+	 * @param scratch The working memory of the thread running the search
+	 * @param virtualLoss true if other threads are searching the same tree
+	 * @param table The transposition table of the tree, or null
+	 * @return the number of cycles run
+	 */
+	private int searchTree(Tree tree, SearchScratch scratch, boolean virtualLoss, TranspositionTable table) {
+		int count = 0;
+		while(haveSearchBudget(count)){
+			runIteration(tree, scratch, virtualLoss, table);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Runs one select/expand/simulate/backpropagate cycle
+	 * @param tree The tree to grow
+	 * @param scratch The working memory of the calling thread
+	 * @param virtualLoss true if other threads are searching the same tree
+	 * @param table The transposition table of the tree, or null
+	 */
+	private void runIteration(Tree tree, SearchScratch scratch, boolean virtualLoss, TranspositionTable table) {
+		NodePool nodes = tree.nodes;
+		State state = scratch.state;
+		state.copyFrom(tree.rootState);
+		// With transpositions a node can have several parents, so the result
+		// is propagated along the path taken rather than the parent links
+		scratch.depth = 0;
+		int promisingNode = selectPromisingNode(tree, scratch, virtualLoss);
+		if(!isGoal(state.snake))
+			expandNode(nodes, promisingNode, scratch, table);
+		int childCount = nodes.childCount(promisingNode);
+		if (childCount > 0) {
+			int child = nodes.child(promisingNode, scratch.random.nextInt(childCount));
+			if (!scratch.onPath(child)) {
+				state.play(nodes.getMove(child));
+				scratch.push(child);
+				if (virtualLoss)
+					nodes.addVirtualLoss(child, 1);
+			}
+		}
+		int playoutResult = simulateRandomPlayout(state, scratch.random, scratch.reachability);
+		backPropagation(nodes, scratch, playoutResult, virtualLoss);
+	}
+
+	/**
+	 * Ends the game, and the background search with it.
+	 */
+	private void endGame() {
+		isGameOver = true;
+		stopPondering();
+	}
+
+	/**
+	 * Starts growing the tree on the fork/join pool until
+	 * {@link #stopPondering()} is called. The root of the tree is the node
+	 * where the player is to move, so the search covers every reply the
+	 * player may make before the next cycle.
+	 * @param tree The tree after the AI move
+	 */
+	private void startPondering(Tree tree) {
+		ponderStop = false;
+		SearchScratch scratch = new SearchScratch(streams.split());
+		ponderTask = solverPool.submit(() -> {
+			int count = 0;
+			while (!ponderStop) {
+				runIteration(tree, scratch, false, transpositions);
+				count++;
+			}
+			return count;
+		});
+	}
+
+	/**
+	 * Stops the background search and waits for it, so that the game can be
+	 * updated without the search reading the board at the same time.
+	 */
+	private void stopPondering() {
+		if (ponderTask == null)
+			return;
+		ponderStop = true;
+		try {
+			lastPonderIterations = ponderTask.get();
+		} catch (InterruptedException | ExecutionException e) {
+			Log.log(Log.Level.ERROR, "Pondering failed", e);
+		}
+		ponderTask = null;
+	}
+
+	/**
+	 * Lets every thread of the fork/join pool grow the same tree. Virtual
+	 * loss keeps the threads on different branches, so the result is one
+	 * deeper tree rather than several shallow ones.
+	 * @param tree The shared tree
+	 * @return the number of cycles run over all threads
+	 */
+	private int searchSharedTree(Tree tree) {
+		List<Callable<Integer>> workers = new ArrayList<>(mctsThreads);
+		for (int i = 0; i < mctsThreads; i++) {
+			SearchScratch scratch = new SearchScratch(streams.split());
+			workers.add(() -> searchTree(tree, scratch, true, transpositions));
+		}
+		int iterations = 0;
+		for (Future<Integer> result : solverPool.invokeAll(workers)) {
+			try {
+				iterations += result.get();
+			} catch (InterruptedException | ExecutionException e) {
+				Log.log(Log.Level.ERROR, "A tree-parallel search thread failed", e);
+			}
+		}
+		return iterations;
+	}
+
+	/**
+	 * Grows one tree per thread from the same root on the fork/join pool, then
+	 * adds the root statistics of the extra trees to the children of the
+	 * first one. The first tree is the tree kept from cycle to cycle, so what
+	 * it learns is kept for the next cycle.
+	 * @param tree The tree to search from
+	 * @return the number of cycles run over all trees
+	 */
+	private int searchRootParallel(Tree tree) {
+		if (workerNodes == null || workerNodes.length != mctsThreads)
+			workerNodes = new NodePool[mctsThreads];
+		Tree[] workerTrees = new Tree[mctsThreads];
+		List<Callable<Integer>> workers = new ArrayList<>(mctsThreads);
+		for (int i = 0; i < mctsThreads; i++) {
+			Tree workerTree = tree;
+			if (i > 0) {
+				// The extra trees only live for one cycle, so they share the capacity
+				if (workerNodes[i] == null)
+					workerNodes[i] = new NodePool(Math.max(1, mctsNodeCapacity / mctsThreads));
+				workerTree = new Tree(workerNodes[i]);
+				workerTree.reset(new State(tree.rootState));
+			}
+			Tree searched = workerTree;
+			workerTrees[i] = searched;
+			TranspositionTable table = i == 0 ? transpositions : null;
+			SearchScratch scratch = new SearchScratch(streams.split());
+			workers.add(() -> searchTree(searched, scratch, false, table));
+		}
+		int iterations = 0;
+		List<Future<Integer>> results = solverPool.invokeAll(workers);
+		for (int i = 0; i < mctsThreads; i++) {
+			try {
+				iterations += results.get(i).get();
+				if (i > 0)
+					mergeRootStatistics(tree, workerTrees[i]);
+			} catch (InterruptedException | ExecutionException e) {
+				Log.log(Log.Level.ERROR, "A root-parallel search thread failed", e);
+			}
+		}
+		return iterations;
+	}
+
+	/**
+	 * Adds the visits and scores of another tree's root children to the
+	 * matching children of the root of tree. Children are matched on their move.
+	 * @param tree The tree receiving the statistics
+	 * @param workerTree A tree searched in parallel
+	 */
+	private void mergeRootStatistics(Tree tree, Tree workerTree) {
+		NodePool nodes = tree.nodes;
+		NodePool searched = workerTree.nodes;
+		nodes.addStatistics(tree.root, searched.getVisits(workerTree.root), 0);
+		for (int i = 0; i < searched.childCount(workerTree.root); i++) {
+			int workerChild = searched.child(workerTree.root, i);
+			for (int j = 0; j < nodes.childCount(tree.root); j++) {
+				int child = nodes.child(tree.root, j);
+				if (nodes.getMove(child) == searched.getMove(workerChild)) {
+					nodes.addStatistics(child, searched.getVisits(workerChild), searched.getScore(workerChild));
+					break;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Choose the best child node under the root, replaying the moves on the
+	 * way down on the scratch state
+	 * @param tree The tree to develop
+	 * @param scratch receives the nodes walked through, from the root
+	 * @param virtualLoss true to mark the path as being searched, for threads sharing the tree
+	 * @return its best child node
+	 */
+	private int selectPromisingNode(Tree tree, SearchScratch scratch, boolean virtualLoss) {
+		NodePool nodes = tree.nodes;
+		int node = tree.getRoot();
+		scratch.push(node);
+		if (virtualLoss)
+			nodes.addVirtualLoss(node, 1);
+		while (nodes.childCount(node) != 0) {
+			// descend to the best child node
+			int next = virtualLoss
+					? UCB.findBestNodeWithVirtualLoss(nodes, node)
+					: UCB.findBestNodeWithUCB(nodes, node);
+			// A transposition can lead back to a position already on the path
+			if (scratch.onPath(next))
+				break;
+			scratch.state.play(nodes.getMove(next));
+			node = next;
+			scratch.push(node);
+			if (virtualLoss)
+				nodes.addVirtualLoss(node, 1);
+		}
+		return node;
+	}
+
+	/**
+	 * Expand the promising node, whose state is on the scratch state. Nothing
+	 * happens once the pool is full, the node just stays a leaf.
+	 * @param nodes The pool of the tree
+	 * @param promisingNode
+	 * @param scratch The working memory of the calling thread
+	 * @param table The transposition table to share nodes through, or null
+	 */
+	private void expandNode(NodePool nodes, int promisingNode, SearchScratch scratch, TranspositionTable table) {
+		if (nodes.isExpanded(promisingNode))
+			return;
+		State state = scratch.state;
+		int count = state.pruneMoves(scratch.moves, state.legalMoves(scratch.moves), scratch.reachability);
+		int first = nodes.reserveChildren(count);
+		if (first == NodePool.NONE)
+			return;
+		boolean childIsAI = state.getOpponent();
+		for (int i = 0; i < count; i++) {
+			int cell = scratch.moves[i];
+			long key = table != null ? state.zobristKeyAfter(cell) : 0;
+			int child = table != null ? table.get(nodes, key) : NodePool.NONE;
+			if (child == NodePool.NONE) {
+				child = nodes.newNode(promisingNode, cell, childIsAI, key);
+				if (child == NodePool.NONE)
+					return;
+				mctsNodesCreated.incrementAndGet();
+				if (table != null)
+					table.put(nodes, key, child);
+			}
+			nodes.setChild(first + i, child);
+		}
+		// Publish all children at once; if another thread got there first, keep its children
+		nodes.publishChildren(promisingNode, first, count);
+	}
+
+
+	/**
+	 * Plays random moves until the game ends. The moves are played in place
+	 * on the scratch state, so a playout allocates nothing.
+	 * @param state The state to play from, overwritten by the playout
+	 * @param random The random generator of the calling thread
+	 * @param reachability Keeps the random moves out of pockets
+	 * @return the status the playout ended with
+	 */
+	private int simulateRandomPlayout(State state, RandomGenerator random, Reachability reachability) {
+//		 System.out.println("SIMULATION:\n\n\n");
+		int boardStatus = state.checkStatus();
+
+		while (boardStatus == State.IN_PROGRESS) {
+			if (!state.playRandomMove(random, reachability)) {
+				// The side to move is walled in, which ends like a crash
+				return state.isAI ? State.PLAYER_CRASH_WIN : State.AI_CRASH_WIN;
+			}
+			boardStatus = state.checkStatus();
+		}
+		return boardStatus;
+	}
+
+	/**
+	 * Propagate the play out simulation value towards the root
+	 * @param nodes The pool of the tree
+	 * @param scratch Holds the nodes from the root to the explored node
+	 * @param playoutResult
+	 * @param virtualLoss true to release the virtual loss taken during selection
+	 */
+	private void backPropagation(NodePool nodes, SearchScratch scratch, int playoutResult, boolean virtualLoss) {
+		for (int i = scratch.depth - 1; i >= 0; i--) {
+			int node = scratch.path[i];
+			nodes.addVisit(node);
+			nodes.addScore(node, nodes.isAIToMove(node) ? playoutResult : -playoutResult);
+			if (virtualLoss)
+				nodes.addVirtualLoss(node, -1);
+		}
+	}
+
+	// start of the current logic cycle, in nanoseconds
+	private long nanoTimeStamp;
+	private void setNanoTime(){
+		nanoTimeStamp = System.nanoTime();
+	}
+
+	/**
+	 * Method used in the mcts loop to check if time has ran out in one interval
+	 * @return if MCTS may still search in this cycle
+	 */
+	public boolean haveTimeLeft(){
+		return System.nanoTime() - nanoTimeStamp < mctsBudgetNanos;
+	}
+
+	/**
+	 * Checks whether a tree that already ran count iterations may run another
+	 * one. Every tree runs at least one, so that its root has children.
+	 * @param count The number of iterations run so far
+	 * @return if the tree may keep searching
+	 */
+	private boolean haveSearchBudget(int count){
+		if (count == 0)
+			return true;
+		if (mctsIterationLimit > 0)
+			return count < mctsIterationLimit;
+		return haveTimeLeft();
+	}
+}
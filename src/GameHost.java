@@ -0,0 +1,202 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * The {@code GameHost} class plays many headless games at once in one JVM.
+ * Every game has its own {@code GameEngine}, and with it its own board,
+ * random streams and MCTS tree; the games only share threads.
+ *
+ * The games run on a fixed pool with one thread per core. A game plays a
+ * slice of ticks and then goes to the back of the queue, so hundreds of
+ * games all make progress without hundreds of threads fighting for the
+ * cores. The parallel MCTS searches of every game run on one shared pool,
+ * bounded as well.
+ *
+ * The memory of a game is mostly its MCTS node pool, about 44 bytes a
+ * node. A windowed game keeps a million nodes, 46 MB; a hosted game gets
+ * {@link #DEFAULT_NODE_CAPACITY} nodes, about 3 MB, so 300 MCTS games in
+ * play need about 1 GB of heap. The other modes allocate no pool.
+ *
+ */
+public class GameHost implements AutoCloseable {
+
+    /**
+     * The number of ticks a game plays before letting the next one in.
+     */
+    public static final int DEFAULT_SLICE_TICKS = 32;
+
+    /**
+     * The number of MCTS nodes of a hosted game. A cycle of MCTS grows its
+     * tree by about a thousand nodes, so this holds a tree kept over many cycles.
+     */
+    public static final int DEFAULT_NODE_CAPACITY = 1 << 16;
+
+    /**
+     * The threads the games are played on.
+     */
+    private final ExecutorService gameThreads;
+
+    /**
+     * The pool the parallel searches of all the games run on.
+     */
+    private final ForkJoinPool solverPool;
+
+    private final int sliceTicks;
+
+    private volatile int nodeCapacity = DEFAULT_NODE_CAPACITY;
+
+    /**
+     * Creates a host with one game thread and one solver thread per core.
+     */
+    public GameHost() {
+        this(Runtime.getRuntime().availableProcessors(), Runtime.getRuntime().availableProcessors(), DEFAULT_SLICE_TICKS);
+    }
+
+    /**
+     * Creates a host.
+     * @param gameThreads The number of games played at the same time.
+     * @param solverThreads The number of threads the parallel searches share.
+     * @param sliceTicks The number of ticks a game plays before the next one gets the thread.
+     */
+    public GameHost(int gameThreads, int solverThreads, int sliceTicks) {
+        AtomicInteger count = new AtomicInteger();
+        this.gameThreads = Executors.newFixedThreadPool(Math.max(1, gameThreads), runnable -> {
+            Thread thread = new Thread(runnable, "Snake game host " + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.solverPool = new ForkJoinPool(Math.max(1, solverThreads));
+        this.sliceTicks = Math.max(1, sliceTicks);
+    }
+
+    /**
+     * Sets the number of MCTS nodes of the games submitted from now on. A
+     * game setup may still set its own.
+     * @param capacity The number of nodes, about 44 bytes each.
+     */
+    public void setNodeCapacity(int capacity) {
+        this.nodeCapacity = Math.max(1, capacity);
+    }
+
+    public int getNodeCapacity() {
+        return nodeCapacity;
+    }
+
+    /**
+     * Starts a game.
+     * @param mode The solver driving the AI snake.
+     * @param seed The seed of the game, so it can be replayed.
+     * @param maxTicks The number of ticks after which the game is stopped if it has not ended.
+     * @param setup Configures the engine before the game starts, or null.
+     * @return The result, completed when the game ends or is stopped.
+     */
+    public CompletableFuture<GameResult> submit(SolverMode mode, long seed, int maxTicks, Consumer<GameEngine> setup) {
+        GameEngine engine = new GameEngine(mode);
+        engine.setSolverPool(solverPool);
+        engine.setSeed(seed);
+        engine.setMCTSNodeCapacity(nodeCapacity);
+        // No one plays the player snake of a hosted MCTS game
+        engine.setPlayerAutopilot(true);
+        if (setup != null)
+            setup.accept(engine);
+        engine.reset();
+        HostedGame game = new HostedGame(engine, maxTicks);
+        gameThreads.execute(game);
+        return game.result;
+    }
+
+    /**
+     * Stops taking games. The games still running are completed
+     * exceptionally when they next give up their thread.
+     */
+    @Override
+    public void close() {
+        gameThreads.shutdown();
+        solverPool.shutdown();
+    }
+
+    /**
+     * A game being played, one slice of ticks at a time.
+     */
+    private final class HostedGame implements Runnable {
+
+        private final GameEngine engine;
+        private final int maxTicks;
+        private final CompletableFuture<GameResult> result = new CompletableFuture<>();
+
+        /**
+         * The wall time of each tick so far.
+         */
+        private long[] tickNanos = new long[256];
+        private int ticks;
+
+        HostedGame(GameEngine engine, int maxTicks) {
+            this.engine = engine;
+            this.maxTicks = maxTicks;
+        }
+
+        @Override
+        public void run() {
+            try {
+                int end = Math.min(maxTicks, ticks + sliceTicks);
+                while (ticks < end && !engine.isGameOver()) {
+                    long start = System.nanoTime();
+                    engine.tick();
+                    record(System.nanoTime() - start);
+                }
+                if (ticks >= maxTicks || engine.isGameOver()) {
+                    result.complete(new GameResult(engine.getMode(), engine.getSeed(), engine.getFruitsEaten() - engine.getPlayerFruitsEaten(),
+                            engine.getScore(), engine.isGameOver(), Arrays.copyOf(tickNanos, ticks)));
+                } else {
+                    gameThreads.execute(this);
+                }
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        }
+
+        private void record(long nanos) {
+            if (ticks == tickNanos.length)
+                tickNanos = Arrays.copyOf(tickNanos, ticks * 2);
+            tickNanos[ticks++] = nanos;
+        }
+    }
+
+    /**
+     * Plays a batch of games of one solver and prints the results.
+     * Arguments: the solver mode, the number of games (100), the tick
+     * limit of each game (5000) and the MCTS nodes of each game
+     * ({@link #DEFAULT_NODE_CAPACITY}). The games use the seeds 1 and up.
+     */
+    public static void main(String[] args) {
+        SolverMode mode = args.length > 0 ? SolverMode.valueOf(args[0]) : SolverMode.AStar;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int maxTicks = args.length > 2 ? Integer.parseInt(args[2]) : 5000;
+        int nodeCapacity = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_NODE_CAPACITY;
+
+        long start = System.nanoTime();
+        List<CompletableFuture<GameResult>> results = new ArrayList<>(games);
+        try (GameHost host = new GameHost()) {
+            host.setNodeCapacity(nodeCapacity);
+            for (int i = 0; i < games; i++)
+                results.add(host.submit(mode, i + 1, maxTicks, null));
+            long fruits = 0;
+            long ticks = 0;
+            for (CompletableFuture<GameResult> result : results) {
+                GameResult game = result.join();
+                fruits += game.getFruitsEaten();
+                ticks += game.getTicks();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d %s games in %.1f s: %.1f fruits on average, %.0f ticks/s%n",
+                    games, mode, seconds, (double) fruits / games, ticks / seconds);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import java.util.Arrays;
+
+/**
+ * The {@code GameResult} class is the outcome of one hosted game: how far the
+ * AI snake got, and how long each of its ticks took.
+ *
+ */
+public class GameResult {
+
+    private final SolverMode mode;
+    private final long seed;
+    private final int fruitsEaten;
+    private final int score;
+    private final boolean gameOver;
+
+    /**
+     * The wall time of each tick, in nanoseconds, in the order they ran.
+     */
+    private final long[] tickNanos;
+
+    GameResult(SolverMode mode, long seed, int fruitsEaten, int score, boolean gameOver, long[] tickNanos) {
+        this.mode = mode;
+        this.seed = seed;
+        this.fruitsEaten = fruitsEaten;
+        this.score = score;
+        this.gameOver = gameOver;
+        this.tickNanos = tickNanos;
+    }
+
+    public SolverMode getMode() {
+        return mode;
+    }
+
+    /**
+     * Gets the seed the game was played from, to replay it.
+     * @return The master seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the number of fruits the AI snake ate. In the MCTS mode the
+     * fruits of the player snake are left out.
+     * @return The fruits eaten by the AI snake.
+     */
+    public int getFruitsEaten() {
+        return fruitsEaten;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Checks whether the game ended, rather than being stopped at its tick limit.
+     * @return Whether or not the AI snake crashed or filled the board.
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Gets the number of ticks the game ran, the ticks the snake survived.
+     * @return The number of ticks.
+     */
+    public int getTicks() {
+        return tickNanos.length;
+    }
+
+    /**
+     * Gets the wall time of each tick.
+     * @return The times in nanoseconds, in the order the ticks ran. Not copied.
+     */
+    public long[] getTickNanos() {
+        return tickNanos;
+    }
+
+    /**
+     * Gets a percentile of the tick times.
+     * @param percentile The percentile, between 0 and 100.
+     * @return The time in nanoseconds, 0 if the game ran no tick.
+     */
+    public long getTickPercentile(double percentile) {
+        if (tickNanos.length == 0)
+            return 0;
+        long[] sorted = tickNanos.clone();
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
+    }
+
+    public String toString() {
+        return mode + " seed " + seed + ": " + fruitsEaten + " fruits, " + getTicks() + " ticks"
+                + (gameOver ? "" : " (stopped)");
+    }
+}
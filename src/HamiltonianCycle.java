@@ -0,0 +1,149 @@
+import java.util.Arrays;
+
+/**
+ * The {@code HamiltonianCycle} class is a closed tour of the board, stored
+ * as a lookup table both ways: the cell at each position of the tour, and
+ * the position of each cell. Following it can never crash, and because the
+ * tour is fixed, every question about it is a table lookup.
+ *
+ * A grid with an odd number of cells has no tour through all of them, so
+ * on such a board the corner (0, 0) is left out. Its two neighbours are
+ * the cells just before and after (1, 1) on the tour, so the corner can be
+ * visited instead of (1, 1); it is given the position of (1, 1).
+ *
+ */
+public class HamiltonianCycle {
+
+    private static final int COLS = BoardPanel.COL_COUNT;
+    private static final int ROWS = BoardPanel.ROW_COUNT;
+
+    /**
+     * The tour of the board, built once.
+     */
+    private static HamiltonianCycle instance;
+
+    /**
+     * The cell at each position of the tour.
+     */
+    private final int[] cells;
+
+    /**
+     * The position of each cell on the tour.
+     */
+    private final int[] index = new int[Bitboard.CELL_COUNT];
+
+    private int length;
+
+    private HamiltonianCycle() {
+        cells = new int[Bitboard.CELL_COUNT];
+        Arrays.fill(index, -1);
+        if (ROWS % 2 == 0) {
+            buildRows();
+        } else if (COLS % 2 == 0) {
+            buildColumns();
+        } else {
+            buildOddBoard();
+        }
+        for (int i = 0; i < length; i++)
+            index[cells[i]] = i;
+        if (length < Bitboard.CELL_COUNT)
+            index[Bitboard.cell(0, 0)] = index[Bitboard.cell(1, 1)];
+    }
+
+    /**
+     * Gets the tour of the board, building it the first time.
+     * @return The shared tour.
+     */
+    public static synchronized HamiltonianCycle forBoard() {
+        if (instance == null)
+            instance = new HamiltonianCycle();
+        return instance;
+    }
+
+    /**
+     * Gets the number of cells on the tour.
+     * @return The length of the tour.
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Gets the position of a cell on the tour.
+     * @param cell The cell index.
+     * @return The position, shared by (0, 0) and (1, 1) when the corner is left out.
+     */
+    public int indexOf(int cell) {
+        return index[cell];
+    }
+
+    /**
+     * Gets the cell following a cell on the tour.
+     * @param cell The cell index.
+     * @return The next cell.
+     */
+    public int next(int cell) {
+        return cells[(index[cell] + 1) % length];
+    }
+
+    /**
+     * Gets how many steps along the tour lead from one cell to another.
+     * @param from The cell to start from.
+     * @param to The cell to reach.
+     * @return The number of steps, from 0 to the length minus one.
+     */
+    public int distance(int from, int to) {
+        int d = index[to] - index[from];
+        return d < 0 ? d + length : d;
+    }
+
+    /*
+     * Even number of rows: snake through the rows in the columns 1 and up,
+     * and come back up the column 0.
+     */
+    private void buildRows() {
+        for (int y = 0; y < ROWS; y++) {
+            for (int i = 1; i < COLS; i++)
+                add(y % 2 == 0 ? i : COLS - i, y);
+        }
+        for (int y = ROWS - 1; y >= 0; y--)
+            add(0, y);
+    }
+
+    /*
+     * Even number of columns: the same through the columns, coming back
+     * along the row 0.
+     */
+    private void buildColumns() {
+        for (int x = 0; x < COLS; x++) {
+            for (int i = 1; i < ROWS; i++)
+                add(x, x % 2 == 0 ? i : ROWS - i);
+        }
+        for (int x = COLS - 1; x >= 0; x--)
+            add(x, 0);
+    }
+
+    /*
+     * Odd by odd, without (0, 0): zig-zag through the rows 0 and 1 two
+     * columns at a time, snake through the rows 2 and down in the columns
+     * 1 and up, and come back up the column 0 to (0, 1).
+     */
+    private void buildOddBoard() {
+        for (int x = 1; x < COLS; x += 2) {
+            add(x, 1);
+            add(x, 0);
+            add(x + 1, 0);
+            add(x + 1, 1);
+        }
+        for (int y = 2; y < ROWS; y++) {
+            for (int i = 1; i < COLS; i++)
+                add(y % 2 == 0 ? COLS - i : i, y);
+        }
+        for (int y = ROWS - 1; y >= 1; y--)
+            add(0, y);
+    }
+
+    private void add(int x, int y) {
+        cells[length++] = Bitboard.cell(x, y);
+    }
+}
@@ -0,0 +1,269 @@
+import java.util.Arrays;
+
+/**
+ * The {@code JumpPointSearch} class finds shortest paths on the 4-connected
+ * board with Jump Point Search. Instead of pushing every neighbour of every
+ * cell, it runs along straight lines and only stops at cells where a turn
+ * may be needed (next to an obstacle, or in line with one reachable
+ * sideways), so the open list only ever holds those jump points. On a
+ * mostly empty board that is a few dozen pushes instead of hundreds.
+ *
+ * Snake bodies are the obstacles. They are given again for every search,
+ * so the planner never assumes they stay where they were.
+ *
+ */
+public class JumpPointSearch {
+
+    private static final int NONE = -1;
+
+    /**
+     * The best known distance from the start to each cell, valid when the
+     * cell was reached during the current search.
+     */
+    private final int[] g = new int[Bitboard.CELL_COUNT];
+
+    /**
+     * The jump point each cell was reached from.
+     */
+    private final int[] parent = new int[Bitboard.CELL_COUNT];
+
+    /**
+     * The search in which each cell was reached, and closed. Comparing with
+     * {@link #search} saves clearing the arrays between searches.
+     */
+    private final int[] reached = new int[Bitboard.CELL_COUNT];
+    private final int[] closed = new int[Bitboard.CELL_COUNT];
+    private int search;
+
+    /**
+     * The open list: a binary min-heap of cells packed with their f and h
+     * values, so that ties on f go to the cell closest to the goal. Cells
+     * that are improved are pushed again and the stale entry is skipped.
+     */
+    private long[] heap = new long[64];
+    private int heapSize;
+
+    /**
+     * The cells that can not be entered during the current search.
+     */
+    private final Bitboard blocked = new Bitboard();
+
+    /**
+     * The last path found, from the start to the goal, every cell included.
+     */
+    private final int[] path = new int[Bitboard.CELL_COUNT];
+
+    private int goal;
+
+    /**
+     * The number of open list pushes since the planner was created, and during the last search.
+     */
+    private long pushes;
+    private int lastPushes;
+
+    /**
+     * The largest the open list grew during the last search.
+     */
+    private int lastPeakOpen;
+
+    /**
+     * Searches a shortest path.
+     * @param start The cell of the head. It is never treated as blocked.
+     * @param goal The cell of the fruit.
+     * @param obstacles The cells that can not be entered. Copied.
+     * @return The number of cells of the path, start and goal included, or 0 if the goal can not be reached.
+     */
+    public int findPath(int start, int goal, Bitboard obstacles) {
+        this.goal = goal;
+        blocked.copyFrom(obstacles);
+        blocked.clear(start);
+        if (++search == 0) {
+            // The counter wrapped around, so old marks could be taken for new ones
+            Arrays.fill(reached, 0);
+            Arrays.fill(closed, 0);
+            search = 1;
+        }
+        heapSize = 0;
+        lastPushes = 0;
+        lastPeakOpen = 0;
+
+        reached[start] = search;
+        g[start] = 0;
+        parent[start] = NONE;
+        push(start);
+        int found = NONE;
+        while (heapSize > 0) {
+            int cell = pop();
+            if (closed[cell] == search)
+                continue;
+            closed[cell] = search;
+            if (cell == goal) {
+                found = cell;
+                break;
+            }
+            expand(cell);
+        }
+        pushes += lastPushes;
+        return found == NONE ? 0 : buildPath(goal);
+    }
+
+    /**
+     * Gets the last path found. Only the first {@code findPath} cells are valid.
+     * @return The cells of the path, from the start to the goal.
+     */
+    public int[] getPath() {
+        return path;
+    }
+
+    public long getPushes() {
+        return pushes;
+    }
+
+    public int getLastPushes() {
+        return lastPushes;
+    }
+
+    public int getLastPeakOpen() {
+        return lastPeakOpen;
+    }
+
+    /**
+     * Jumps from a jump point in every direction worth exploring: all four
+     * from the start, otherwise all but the way back.
+     */
+    private void expand(int cell) {
+        int from = parent[cell];
+        if (from == NONE) {
+            tryJump(cell, 1, 0);
+            tryJump(cell, -1, 0);
+            tryJump(cell, 0, -1);
+            tryJump(cell, 0, 1);
+            return;
+        }
+        int dx = Integer.signum(Bitboard.cellX(cell) - Bitboard.cellX(from));
+        int dy = Integer.signum(Bitboard.cellY(cell) - Bitboard.cellY(from));
+        if (dx != 0) {
+            tryJump(cell, dx, 0);
+            tryJump(cell, 0, -1);
+            tryJump(cell, 0, 1);
+        } else {
+            tryJump(cell, 0, dy);
+            tryJump(cell, -1, 0);
+            tryJump(cell, 1, 0);
+        }
+    }
+
+    private void tryJump(int cell, int dx, int dy) {
+        int jumpPoint = jump(Bitboard.cellX(cell) + dx, Bitboard.cellY(cell) + dy, dx, dy);
+        if (jumpPoint == NONE || closed[jumpPoint] == search)
+            return;
+        int distance = g[cell] + heuristic(cell, jumpPoint);
+        if (reached[jumpPoint] == search && g[jumpPoint] <= distance)
+            return;
+        reached[jumpPoint] = search;
+        g[jumpPoint] = distance;
+        parent[jumpPoint] = cell;
+        push(jumpPoint);
+    }
+
+    /**
+     * Runs from a cell in one direction until a jump point, a wall or an obstacle.
+     * A horizontal run stops where a cell beside it opens up behind an
+     * obstacle. A vertical run stops there too, and also wherever a
+     * horizontal run from it would find a jump point.
+     * @return The jump point, or NONE if the run hit a wall or an obstacle first.
+     */
+    private int jump(int x, int y, int dx, int dy) {
+        while (true) {
+            if (!isFree(x, y))
+                return NONE;
+            int cell = Bitboard.cell(x, y);
+            if (cell == goal)
+                return cell;
+            if (dx != 0) {
+                if ((isFree(x, y - 1) && !isFree(x - dx, y - 1))
+                        || (isFree(x, y + 1) && !isFree(x - dx, y + 1)))
+                    return cell;
+            } else {
+                if ((isFree(x - 1, y) && !isFree(x - 1, y - dy))
+                        || (isFree(x + 1, y) && !isFree(x + 1, y - dy)))
+                    return cell;
+                if (jump(x + 1, y, 1, 0) != NONE || jump(x - 1, y, -1, 0) != NONE)
+                    return cell;
+            }
+            x += dx;
+            y += dy;
+        }
+    }
+
+    private boolean isFree(int x, int y) {
+        return Bitboard.inBoard(x, y) && !blocked.get(Bitboard.cell(x, y));
+    }
+
+    /**
+     * Walks the jump points back from the goal and fills in the straight
+     * runs between them.
+     * @return The number of cells of the path.
+     */
+    private int buildPath(int goal) {
+        int length = g[goal] + 1;
+        int i = length - 1;
+        int cell = goal;
+        path[i] = cell;
+        while (parent[cell] != NONE) {
+            int from = parent[cell];
+            int dx = Integer.signum(Bitboard.cellX(from) - Bitboard.cellX(cell));
+            int dy = Integer.signum(Bitboard.cellY(from) - Bitboard.cellY(cell));
+            int x = Bitboard.cellX(cell);
+            int y = Bitboard.cellY(cell);
+            while (Bitboard.cell(x, y) != from) {
+                x += dx;
+                y += dy;
+                path[--i] = Bitboard.cell(x, y);
+            }
+            cell = from;
+        }
+        return length;
+    }
+
+    private void push(int cell) {
+        if (heapSize == heap.length)
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        int h = heuristic(cell, goal);
+        long entry = ((long) (g[cell] + h) << 40) | ((long) h << 20) | cell;
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heap[up] <= entry)
+                break;
+            heap[i] = heap[up];
+            i = up;
+        }
+        heap[i] = entry;
+        lastPushes++;
+        lastPeakOpen = Math.max(lastPeakOpen, heapSize);
+    }
+
+    private int pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize)
+                break;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child])
+                child++;
+            if (heap[child] >= last)
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return (int) (top & 0xFFFFF);
+    }
+
+    private static int heuristic(int a, int b) {
+        return Math.abs(Bitboard.cellX(a) - Bitboard.cellX(b)) + Math.abs(Bitboard.cellY(a) - Bitboard.cellY(b));
+    }
+}
@@ -0,0 +1,149 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The {@code LatencyHistogram} class counts durations in buckets laid out
+ * the way HdrHistogram lays them out: exact below 128 nanoseconds, then 64
+ * buckets per power of two, so any percentile is known to within 1.6%
+ * whatever the range, from nanoseconds to minutes. Recording is one atomic
+ * increment and never allocates, so any number of threads may record at
+ * once while the percentiles are being read.
+ *
+ */
+public class LatencyHistogram {
+
+    /*
+     * Values below SUB_BUCKETS have a bucket each. Above, a value keeps its
+     * top SUB_BITS bits: the power of two picks a group of HALF buckets and
+     * the bits below the top one pick the bucket in it.
+     */
+    private static final int SUB_BITS = 7;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int HALF = SUB_BUCKETS / 2;
+
+    /**
+     * The largest power of two the buckets reach: 2^40 ns is about 18 minutes.
+     */
+    private static final int MAX_EXPONENT = 40;
+
+    static final int BUCKET_COUNT = SUB_BUCKETS + (MAX_EXPONENT - SUB_BITS + 1) * HALF;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Counts a duration.
+     * @param nanos The duration in nanoseconds. Negative ones count as 0.
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts.incrementAndGet(bucketOf(value));
+        long seen = max.get();
+        while (value > seen && !max.compareAndSet(seen, value))
+            seen = max.get();
+    }
+
+    /**
+     * Copies the counts of the buckets. They are read one by one, so a copy
+     * taken while other threads record may be a few counts behind.
+     * @return The counts, indexed by bucket.
+     */
+    public long[] snapshot() {
+        long[] copy = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++)
+            copy[i] = counts.get(i);
+        return copy;
+    }
+
+    /**
+     * Gets the largest duration recorded.
+     * @return The duration in nanoseconds.
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Clears the counts.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++)
+            counts.set(i, 0);
+        max.set(0);
+    }
+
+    /**
+     * Gets the number of durations counted in a snapshot.
+     * @param counts The counts of the buckets.
+     * @return The total count.
+     */
+    public static long count(long[] counts) {
+        long total = 0;
+        for (long count : counts)
+            total += count;
+        return total;
+    }
+
+    /**
+     * Gets a percentile from a snapshot, or from the difference of two.
+     * @param counts The counts of the buckets.
+     * @param percentile The percentile, between 0 and 100.
+     * @return The largest duration the bucket of the percentile holds, in nanoseconds, or 0 if nothing was counted.
+     */
+    public static long valueAtPercentile(long[] counts, double percentile) {
+        long total = count(counts);
+        if (total == 0)
+            return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank)
+                return highestValueIn(i);
+        }
+        return highestValueIn(counts.length - 1);
+    }
+
+    /**
+     * Gets the mean of a snapshot, each duration taken at the middle of its bucket.
+     * @param counts The counts of the buckets.
+     * @return The mean in nanoseconds, or 0 if nothing was counted.
+     */
+    public static double mean(long[] counts) {
+        long total = 0;
+        double sum = 0;
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0)
+                continue;
+            total += counts[i];
+            sum += counts[i] * ((lowestValueIn(i) + highestValueIn(i)) / 2.0);
+        }
+        return total == 0 ? 0 : sum / total;
+    }
+
+    static int bucketOf(long value) {
+        if (value < SUB_BUCKETS)
+            return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT)
+            return BUCKET_COUNT - 1;
+        int shift = exponent - (SUB_BITS - 1);
+        return SUB_BUCKETS + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+    }
+
+    static long lowestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int shift = (bucket - SUB_BUCKETS) / HALF + 1;
+        long top = (bucket - SUB_BUCKETS) % HALF + HALF;
+        return top << shift;
+    }
+
+    static long highestValueIn(int bucket) {
+        if (bucket < SUB_BUCKETS)
+            return bucket;
+        int shift = (bucket - SUB_BUCKETS) / HALF + 1;
+        long top = (bucket - SUB_BUCKETS) % HALF + HALF;
+        return ((top + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,306 @@
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The {@code Log} class records the messages of the game without slowing the
+ * threads that log them. An event is a message template and up to six number
+ * arguments, copied into a preallocated ring buffer; a background thread
+ * turns the events into text and writes them out. A logging thread never
+ * formats, allocates or waits for the console.
+ *
+ * Events below the current level are dropped before anything is copied, so
+ * the only cost of a disabled call is evaluating its number arguments. Work
+ * done only to log, such as a loop over the children of a node, should be
+ * guarded with {@link #isEnabled}. When the buffer is full the new events
+ * are dropped and counted, rather than making the game wait.
+ *
+ * The templates take an argument at each of these markers:
+ * {@code {}} a number, {@code {cell}} a cell index printed as (x,y),
+ * {@code {dir}} a direction ordinal, or -1 for none, and {@code {f}} a
+ * double passed through {@link #bits(double)}.
+ *
+ * An exception may be logged instead of number arguments. Its stack trace
+ * is written out after the message, by the writer thread.
+ *
+ * The level is read from the system property {@code snake.log.level} and
+ * defaults to INFO.
+ *
+ */
+public class Log {
+
+    /**
+     * The levels of the events, from the most to the least verbose.
+     */
+    public enum Level {
+        DEBUG,
+        INFO,
+        WARN,
+        ERROR,
+        OFF
+    }
+
+    /**
+     * The number of events the buffer holds. A power of two.
+     */
+    private static final int CAPACITY = 1 << 13;
+    private static final int MASK = CAPACITY - 1;
+
+    private static final int MAX_ARGS = 6;
+
+    /**
+     * How long the writer sleeps when the buffer is empty.
+     */
+    private static final long IDLE_NANOS = 2_000_000L;
+
+    private static final Direction[] DIRECTIONS = Direction.values();
+
+    /**
+     * The ordinal of the least verbose level that is recorded.
+     */
+    private static volatile int threshold = initialLevel().ordinal();
+
+    /**
+     * A slot of the buffer. The writer reads it once {@code published} holds
+     * the sequence number it was claimed for.
+     */
+    private static final class Event {
+        volatile long published = -1;
+        Level level;
+        String template;
+        int argc;
+        final long[] args = new long[MAX_ARGS];
+        Throwable thrown;
+    }
+
+    private static final Event[] EVENTS = new Event[CAPACITY];
+    static {
+        for (int i = 0; i < CAPACITY; i++)
+            EVENTS[i] = new Event();
+    }
+
+    /**
+     * The sequence number of the next event to claim, and of the next event to write out.
+     */
+    private static final AtomicLong claimed = new AtomicLong();
+    private static volatile long written;
+
+    /**
+     * The number of events dropped because the buffer was full.
+     */
+    private static final AtomicLong dropped = new AtomicLong();
+
+    private Log() {
+    }
+
+    /**
+     * Sets the least verbose level that is recorded.
+     * @param level The level, or OFF to record nothing.
+     */
+    public static void setLevel(Level level) {
+        threshold = level.ordinal();
+    }
+
+    /**
+     * Checks whether events of a level are recorded.
+     * @param level The level.
+     * @return Whether or not a call at this level records anything.
+     */
+    public static boolean isEnabled(Level level) {
+        return level.ordinal() >= threshold;
+    }
+
+    /**
+     * Passes a double as a number argument, for the {@code {f}} marker.
+     * @param value The double.
+     * @return Its bits.
+     */
+    public static long bits(double value) {
+        return Double.doubleToRawLongBits(value);
+    }
+
+    public static void log(Level level, String template) {
+        if (level.ordinal() >= threshold)
+            record(level, template, null, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Logs a message followed by the stack trace of an exception.
+     * @param level The level of the event.
+     * @param template The message, without markers.
+     * @param thrown The exception.
+     */
+    public static void log(Level level, String template, Throwable thrown) {
+        if (level.ordinal() >= threshold)
+            record(level, template, thrown, 0, 0, 0, 0, 0, 0, 0);
+    }
+
+    public static void log(Level level, String template, long a) {
+        if (level.ordinal() >= threshold)
+            record(level, template, null, 1, a, 0, 0, 0, 0, 0);
+    }
+
+    public static void log(Level level, String template, long a, long b) {
+        if (level.ordinal() >= threshold)
+            record(level, template, null, 2, a, b, 0, 0, 0, 0);
+    }
+
+    public static void log(Level level, String template, long a, long b, long c) {
+        if (level.ordinal() >= threshold)
+            record(level, template, null, 3, a, b, c, 0, 0, 0);
+    }
+
+    public static void log(Level level, String template, long a, long b, long c, long d) {
+        if (level.ordinal() >= threshold)
+            record(level, template, null, 4, a, b, c, d, 0, 0);
+    }
+
+    public static void log(Level level, String template, long a, long b, long c, long d, long e) {
+        if (level.ordinal() >= threshold)
+            record(level, template, null, 5, a, b, c, d, e, 0);
+    }
+
+    public static void log(Level level, String template, long a, long b, long c, long d, long e, long f) {
+        if (level.ordinal() >= threshold)
+            record(level, template, null, 6, a, b, c, d, e, f);
+    }
+
+    /**
+     * Claims a slot, copies the event in and publishes it.
+     */
+    private static void record(Level level, String template, Throwable thrown, int argc, long a, long b, long c, long d, long e, long f) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - written >= CAPACITY) {
+                dropped.incrementAndGet();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        Event event = EVENTS[(int) sequence & MASK];
+        event.level = level;
+        event.template = template;
+        event.argc = argc;
+        event.thrown = thrown;
+        long[] args = event.args;
+        args[0] = a;
+        args[1] = b;
+        args[2] = c;
+        args[3] = d;
+        args[4] = e;
+        args[5] = f;
+        event.published = sequence;
+        Writer.start();
+    }
+
+    private static Level initialLevel() {
+        try {
+            return Level.valueOf(System.getProperty("snake.log.level", "INFO").toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+
+    /**
+     * The background thread writing the events out, started with the first event.
+     */
+    private static final class Writer implements Runnable {
+
+        private static final StringBuilder LINE = new StringBuilder(256);
+        private static long reportedDrops;
+
+        static {
+            Thread thread = new Thread(new Writer(), "Snake log");
+            thread.setDaemon(true);
+            thread.start();
+            // Write out what is left when the program ends
+            Runtime.getRuntime().addShutdownHook(new Thread(Writer::drain));
+        }
+
+        /**
+         * Starts the writer, the first time the class is used. The writer
+         * polls rather than being woken up, so logging never makes a system call.
+         */
+        static void start() {
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                if (!drain())
+                    LockSupport.parkNanos(IDLE_NANOS);
+            }
+        }
+
+        /**
+         * Writes out every published event.
+         * @return Whether or not there was anything to write.
+         */
+        static synchronized boolean drain() {
+            long next = written;
+            boolean any = false;
+            while (true) {
+                Event event = EVENTS[(int) next & MASK];
+                if (event.published != next)
+                    break;
+                Level level = event.level;
+                Throwable thrown = event.thrown;
+                event.thrown = null;
+                format(event);
+                // Free the slot before writing, the text is already copied out
+                written = ++next;
+                PrintStream out = level.ordinal() >= Level.WARN.ordinal() ? System.err : System.out;
+                out.append(LINE).append('\n');
+                if (thrown != null)
+                    thrown.printStackTrace(out);
+                any = true;
+            }
+            long drops = dropped.get();
+            if (drops != reportedDrops) {
+                System.err.append("Log buffer full, ").append(String.valueOf(drops - reportedDrops)).append(" events dropped\n");
+                reportedDrops = drops;
+                any = true;
+            }
+            if (any) {
+                System.out.flush();
+                System.err.flush();
+            }
+            return any;
+        }
+
+        private static void format(Event event) {
+            StringBuilder line = LINE;
+            line.setLength(0);
+            String template = event.template;
+            int arg = 0;
+            int i = 0;
+            while (i < template.length()) {
+                char ch = template.charAt(i);
+                int end = ch == '{' ? template.indexOf('}', i) : -1;
+                if (end < 0 || arg >= event.argc) {
+                    line.append(ch);
+                    i++;
+                    continue;
+                }
+                long value = event.args[arg++];
+                String marker = template.substring(i + 1, end);
+                switch (marker) {
+                    case "cell":
+                        line.append('(').append(Bitboard.cellX((int) value)).append(',')
+                                .append(Bitboard.cellY((int) value)).append(')');
+                        break;
+                    case "dir":
+                        line.append(value < 0 || value >= DIRECTIONS.length ? "none" : DIRECTIONS[(int) value].toString());
+                        break;
+                    case "f":
+                        line.append(Double.longBitsToDouble(value));
+                        break;
+                    default:
+                        line.append(value);
+                        break;
+                }
+                i = end + 1;
+            }
+        }
+    }
+}
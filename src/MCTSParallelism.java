@@ -0,0 +1,25 @@
+/**
+ * The {@code MCTSParallelism} enum selects how the MCTS solver spreads its
+ * iterations over threads.
+ *
+ */
+public enum MCTSParallelism {
+
+	/**
+	 * One tree, searched by the game thread.
+	 */
+	Sequential,
+
+	/**
+	 * Independent trees grown from the same root on separate threads, whose
+	 * root statistics are merged before the move is chosen.
+	 */
+	Root,
+
+	/**
+	 * One tree shared by several threads, with lock-free node statistics
+	 * and virtual loss to spread the threads over different branches.
+	 */
+	Tree
+
+}
@@ -35,16 +35,46 @@ public class Main {
             }
         });
 
+        JRadioButton b5=new JRadioButton("D* Lite");
+        b5.setBounds(35,170,155,30);
+        b5.addActionListener(new ActionListener(){
+            public void actionPerformed(ActionEvent e){
+                solverMode = SolverMode.DStarLite;
+            }
+        });
+
+        JRadioButton b6=new JRadioButton("Jump Point Search");
+        b6.setBounds(35,210,175,30);
+        b6.addActionListener(new ActionListener(){
+            public void actionPerformed(ActionEvent e){
+                solverMode = SolverMode.JPS;
+            }
+        });
+
+        JRadioButton b7=new JRadioButton("Hamiltonian cycle");
+        b7.setBounds(35,250,175,30);
+        b7.addActionListener(new ActionListener(){
+            public void actionPerformed(ActionEvent e){
+                solverMode = SolverMode.Hamiltonian;
+            }
+        });
+
         ButtonGroup bg=new ButtonGroup();
         bg.add(b1);
         bg.add(b2);
         bg.add(b3);
+        bg.add(b5);
+        bg.add(b6);
+        bg.add(b7);
         f.add(b1);
         f.add(b2);
         f.add(b3);
+        f.add(b5);
+        f.add(b6);
+        f.add(b7);
 
         JButton b4=new JButton("Start");
-        b4.setBounds(40,160,95,30);
+        b4.setBounds(40,290,95,30);
         b4.addActionListener(new ActionListener(){
             public void actionPerformed(ActionEvent e){
                 Main.selected = true;
@@ -52,7 +82,7 @@ public class Main {
         });
         f.add(b4);
 
-        f.setSize(250,250);
+        f.setSize(250,370);
         f.setLayout(null);
         f.setVisible(true);
 
@@ -64,7 +94,7 @@ public class Main {
                     Thread.sleep(500);
                 }
             } catch (InterruptedException ex) {
-                ex.printStackTrace();
+                Log.log(Log.Level.ERROR, "The launcher was interrupted", ex);
             }
         }
     }
@@ -0,0 +1,274 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@code NodePool} class stores a whole MCTS tree in parallel primitive
+ * arrays. A node is an index into those arrays rather than an object, so a
+ * tree of a million nodes is a handful of large arrays that the search walks
+ * without chasing pointers, and that are allocated once and reused.
+ *
+ * Nodes do not hold a game state. A node only records the cell its mover
+ * stepped to; the search rebuilds the state of a node by replaying those
+ * moves from the root state.
+ *
+ * The children of a node are a run of entries in a shared child array, so
+ * with a transposition table one node can be the child of several parents.
+ *
+ */
+public class NodePool {
+
+    /**
+     * The index standing for no node, and the first child of a node that has
+     * not been expanded yet.
+     */
+    static final int NONE = -1;
+
+    /**
+     * Handles for updating the arrays without locks when several threads share
+     * one tree. Plain reads of the statistics may be slightly stale, which UCB
+     * tolerates.
+     */
+    private static final VarHandle INTS = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final VarHandle DOUBLES = MethodHandles.arrayElementVarHandle(double[].class);
+
+    /**
+     * The statistics of each node.
+     */
+    private final int[] visits;
+    private final double[] scores;
+
+    /**
+     * The number of threads currently searching below each node (tree-parallel MCTS).
+     */
+    private final int[] virtualLoss;
+
+    /**
+     * The node each node was first created under, or NONE for the root.
+     */
+    private final int[] parent;
+
+    /**
+     * Where the children of each node start in {@code children}, or NONE if
+     * the node has not been expanded.
+     */
+    private final int[] firstChild;
+
+    /**
+     * The number of children of each expanded node, at most four.
+     */
+    private final byte[] childCount;
+
+    /**
+     * The cell the mover stepped to when entering each node.
+     */
+    private final short[] move;
+
+    /**
+     * Whether the AI snake is to move at each node.
+     */
+    private final boolean[] aiToMove;
+
+    /**
+     * The Zobrist hash of the position of each node.
+     */
+    private final long[] keys;
+
+    /**
+     * The child lists of all the nodes, one run of entries per expanded node.
+     */
+    private final int[] children;
+
+    /**
+     * The number of nodes and child entries handed out since the last reset.
+     * They may overshoot the capacity when an allocation fails.
+     */
+    private final AtomicInteger nodeCount = new AtomicInteger();
+    private final AtomicInteger childEntryCount = new AtomicInteger();
+
+    /**
+     * Creates a pool able to hold a fixed number of nodes.
+     * @param capacity The number of nodes.
+     */
+    public NodePool(int capacity) {
+        visits = new int[capacity];
+        scores = new double[capacity];
+        virtualLoss = new int[capacity];
+        parent = new int[capacity];
+        firstChild = new int[capacity];
+        childCount = new byte[capacity];
+        move = new short[capacity];
+        aiToMove = new boolean[capacity];
+        keys = new long[capacity];
+        // Transpositions add child entries without adding nodes
+        children = new int[capacity * 2];
+    }
+
+    /**
+     * Forgets every node. Nothing is cleared here, a node is initialised when
+     * it is handed out again.
+     */
+    public void reset() {
+        nodeCount.set(0);
+        childEntryCount.set(0);
+    }
+
+    public int capacity() {
+        return visits.length;
+    }
+
+    /**
+     * Gets the number of nodes in use.
+     * @return The number of nodes.
+     */
+    public int size() {
+        return Math.min(nodeCount.get(), visits.length);
+    }
+
+    /**
+     * Hands out a new, unexpanded node with no statistics.
+     * @param parentNode The node it is created under, or NONE for a root.
+     * @param moveCell The cell the mover stepped to, or 0 for a root.
+     * @param isAI Whether the AI is to move in the new node.
+     * @param key The Zobrist hash of the new node's position.
+     * @return The new node, or NONE if the pool is full.
+     */
+    public int newNode(int parentNode, int moveCell, boolean isAI, long key) {
+        int node = nodeCount.getAndIncrement();
+        if (node >= visits.length) {
+            return NONE;
+        }
+        visits[node] = 0;
+        scores[node] = 0;
+        virtualLoss[node] = 0;
+        parent[node] = parentNode;
+        firstChild[node] = NONE;
+        childCount[node] = 0;
+        move[node] = (short) moveCell;
+        aiToMove[node] = isAI;
+        keys[node] = key;
+        return node;
+    }
+
+    /**
+     * Reserves a run of entries for the children of one node.
+     * @param count The number of children.
+     * @return The first reserved entry, or NONE if the pool is full.
+     */
+    public int reserveChildren(int count) {
+        int first = childEntryCount.getAndAdd(count);
+        if (first + count > children.length) {
+            return NONE;
+        }
+        return first;
+    }
+
+    /**
+     * Fills one reserved child entry.
+     * @param entry The entry, from {@link #reserveChildren(int)}.
+     * @param child The child node.
+     */
+    public void setChild(int entry, int child) {
+        children[entry] = child;
+    }
+
+    /**
+     * Makes the reserved children of a node visible in a single step, so
+     * threads sharing the tree never see a half expanded node.
+     * @param node The node being expanded.
+     * @param first The first reserved entry.
+     * @param count The number of children.
+     * @return true if this call published the children, false if another
+     *         thread expanded the node first
+     */
+    public boolean publishChildren(int node, int first, int count) {
+        childCount[node] = (byte) count;
+        return INTS.compareAndSet(firstChild, node, NONE, first);
+    }
+
+    public boolean isExpanded(int node) {
+        return (int) INTS.getAcquire(firstChild, node) != NONE;
+    }
+
+    /**
+     * Gets the number of children of a node.
+     * @param node The node.
+     * @return The number of children, 0 if it is not expanded.
+     */
+    public int childCount(int node) {
+        return isExpanded(node) ? childCount[node] : 0;
+    }
+
+    /**
+     * Gets the i-th child of an expanded node.
+     * @param node The node.
+     * @param i The position of the child.
+     * @return The child node.
+     */
+    public int child(int node, int i) {
+        return children[firstChild[node] + i];
+    }
+
+    public int getVisits(int node) {
+        return visits[node];
+    }
+
+    public double getScore(int node) {
+        return scores[node];
+    }
+
+    public int getVirtualLoss(int node) {
+        return virtualLoss[node];
+    }
+
+    public int getParent(int node) {
+        return parent[node];
+    }
+
+    public int getMove(int node) {
+        return move[node];
+    }
+
+    public boolean isAIToMove(int node) {
+        return aiToMove[node];
+    }
+
+    public long getKey(int node) {
+        return keys[node];
+    }
+
+    /**
+     * Makes a node a root, so it no longer points at the node above it.
+     * @param node The node.
+     */
+    public void detach(int node) {
+        parent[node] = NONE;
+    }
+
+    /*
+     * Atomic versions of visits++ and score += value, safe to call from
+     * several threads on the same node.
+     */
+    void addVisit(int node) {
+        INTS.getAndAdd(visits, node, 1);
+    }
+
+    void addScore(int node, double score) {
+        DOUBLES.getAndAdd(scores, node, score);
+    }
+
+    void addVirtualLoss(int node, int delta) {
+        INTS.getAndAdd(virtualLoss, node, delta);
+    }
+
+    /**
+     * Adds the statistics gathered for the same position in another tree.
+     * @param node The node.
+     * @param visitCount The visits to add.
+     * @param score The score to add.
+     */
+    void addStatistics(int node, int visitCount, double score) {
+        INTS.getAndAdd(visits, node, visitCount);
+        DOUBLES.getAndAdd(scores, node, score);
+    }
+}
@@ -0,0 +1,53 @@
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * The {@code RandomStreams} class is the source of every random number of a
+ * game. Each user (the fruit spawner, each MCTS worker) gets a stream of its
+ * own, split from one master generator, so threads never share a generator.
+ * Streams are split in the order they are asked for, so a game started from
+ * the same seed and asking in the same order replays bit-for-bit.
+ *
+ */
+public class RandomStreams {
+
+    /**
+     * The seed of the master generator.
+     */
+    private final long seed;
+
+    /**
+     * The generator the streams are split from.
+     */
+    private final SplittableRandom master;
+
+    /**
+     * Creates the streams of one game.
+     * @param seed The master seed.
+     */
+    public RandomStreams(long seed) {
+        this.seed = seed;
+        this.master = new SplittableRandom(seed);
+    }
+
+    /**
+     * Draws a seed for a game that was not given one.
+     * @return A new seed, different on every call.
+     */
+    public static long newSeed() {
+        return new SplittableRandom().nextLong();
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Hands out a new stream. The stream must only be used by one thread at a
+     * time; this method itself may be called from any thread.
+     * @return The new stream.
+     */
+    public synchronized RandomGenerator split() {
+        return master.split();
+    }
+}
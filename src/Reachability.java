@@ -0,0 +1,126 @@
+/**
+ * The {@code Reachability} class keeps a snake out of pockets. It flood fills
+ * the free space a move leads into, and a move whose region has fewer cells
+ * than the snake is long is pruned: the snake would run out of room before
+ * its tail freed any. If every move leads into a pocket, only the ones into
+ * the largest pocket are kept, so there is always something left to play.
+ *
+ * The fill stops as soon as the region is known to be large enough, and
+ * {@link #mayDivide} skips it altogether when the moves can be seen to
+ * share one region from the cells around the head. One instance per thread.
+ *
+ */
+public class Reachability {
+
+    /**
+     * The cells a head can not enter after the move being checked.
+     */
+    private final Bitboard blocked = new Bitboard();
+
+    /**
+     * The region being filled.
+     */
+    private final Bitboard region = new Bitboard();
+
+    /*
+     * The region size found for each candidate move.
+     */
+    private final int[] sizes = new int[4];
+
+    /**
+     * The number of moves pruned by this instance.
+     */
+    private long pruned;
+
+    /**
+     * Drops the moves that lead into a pocket smaller than the snake. The
+     * moving snake's tail is counted as free, as it leaves on the move.
+     * @param cells The candidate cells. Kept in order, the pruned ones removed.
+     * @param count The number of candidates.
+     * @param mover The snake to move.
+     * @param other The other snake, or null.
+     * @return The number of candidates left, at least 1 if count was.
+     */
+    public int prune(int[] cells, int count, SnakeBuffer mover, SnakeBuffer other) {
+        if (count == 0)
+            return 0;
+        blocked.copyFrom(mover.getOccupancy());
+        if (other != null)
+            blocked.or(other.getOccupancy());
+        blocked.clear(mover.peekLast());
+        int length = mover.size();
+        int largest = 0;
+        for (int i = 0; i < count; i++) {
+            // The head cell is blocked once entered, so it does not count towards the room
+            sizes[i] = region.fill(cells[i], blocked, length + 1) - 1;
+            largest = Math.max(largest, sizes[i]);
+        }
+        int bar = Math.min(largest, length);
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (sizes[i] >= bar)
+                cells[kept++] = cells[i];
+        }
+        pruned += count - kept;
+        return kept;
+    }
+
+    /*
+     * The eight cells around a head, walking around it: north, north east,
+     * east, south east, south, south west, west, north west. The even ones
+     * are the moves.
+     */
+    private static final int[] RING_DX = {0, 1, 1, 1, 0, -1, -1, -1};
+    private static final int[] RING_DY = {-1, -1, 0, 1, 1, 1, 0, -1};
+
+    /**
+     * Checks whether the moves of a head can lead into different regions.
+     * Two moves next to each other around the head stay connected through
+     * the free cells of the ring around it; when all the free moves are
+     * linked that way, they share one region and there is nothing to prune.
+     * @param head The cell of the head to move.
+     * @param mover The snake to move.
+     * @param other The other snake, or null.
+     * @return true if the moves fall into at least two separate groups around the head
+     */
+    public static boolean mayDivide(int head, SnakeBuffer mover, SnakeBuffer other) {
+        int x = Bitboard.cellX(head);
+        int y = Bitboard.cellY(head);
+        int free = 0;
+        for (int i = 0; i < 8; i++) {
+            if (isFree(x + RING_DX[i], y + RING_DY[i], mover, other))
+                free |= 1 << i;
+        }
+        // Count the runs of free ring cells that hold a move, starting after a blocked cell
+        int start = Integer.numberOfTrailingZeros(~free & 0xFF);
+        if (start == 32)
+            return false;
+        int groups = 0;
+        boolean inRun = false;
+        boolean runHasMove = false;
+        for (int k = 1; k <= 8; k++) {
+            int i = (start + k) & 7;
+            if ((free & (1 << i)) != 0) {
+                inRun = true;
+                runHasMove |= (i & 1) == 0;
+            } else if (inRun) {
+                if (runHasMove)
+                    groups++;
+                inRun = false;
+                runHasMove = false;
+            }
+        }
+        return groups > 1;
+    }
+
+    private static boolean isFree(int x, int y, SnakeBuffer mover, SnakeBuffer other) {
+        if (!Bitboard.inBoard(x, y))
+            return false;
+        int cell = Bitboard.cell(x, y);
+        return !mover.contains(cell) && (other == null || !other.contains(cell));
+    }
+
+    public long getPruned() {
+        return pruned;
+    }
+}
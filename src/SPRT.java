@@ -0,0 +1,121 @@
+/**
+ * The {@code SPRT} class is a sequential probability ratio test between two
+ * solvers playing the same seeds. Each seed one of them got further on is a
+ * win for it; seeds they tie on carry no information and are skipped.
+ *
+ * The test weighs H0, the second solver wins a share 0.5 + delta of the
+ * decisive seeds, against H1, the first one does. The log-likelihood ratio
+ * is updated after every seed and the test stops as soon as it crosses one
+ * of Wald's bounds, usually long before a fixed number of games would.
+ * Between two solvers of equal strength it may never stop.
+ *
+ */
+public class SPRT {
+
+    /**
+     * The outcome of the test so far.
+     */
+    public enum Decision {
+        Undecided,
+        FirstBetter,
+        SecondBetter
+    }
+
+    /**
+     * The log-likelihood ratio added by a win of the first and of the second solver.
+     */
+    private final double winStep;
+    private final double lossStep;
+
+    /**
+     * The bounds the ratio stops at: accept H0 below the lower one, H1 above the upper one.
+     */
+    private final double lower;
+    private final double upper;
+
+    private double llr;
+    private int wins;
+    private int losses;
+    private int draws;
+    private Decision decision = Decision.Undecided;
+
+    /**
+     * Creates a test.
+     * @param alpha The chance of calling the first solver better when the second one is.
+     * @param beta The chance of calling the second solver better when the first one is.
+     * @param delta How far from an even share of wins a solver must be to count as better, below 0.5.
+     */
+    public SPRT(double alpha, double beta, double delta) {
+        double p0 = 0.5 - delta;
+        double p1 = 0.5 + delta;
+        this.winStep = Math.log(p1 / p0);
+        this.lossStep = Math.log((1 - p1) / (1 - p0));
+        this.lower = Math.log(beta / (1 - alpha));
+        this.upper = Math.log((1 - beta) / alpha);
+    }
+
+    /**
+     * Adds the outcome of one seed. Ignored once the test is decided.
+     * @param first The score of the first solver.
+     * @param second The score of the second solver.
+     * @return The decision after this seed.
+     */
+    public Decision add(double first, double second) {
+        if (decision != Decision.Undecided)
+            return decision;
+        if (first > second) {
+            wins++;
+            llr += winStep;
+        } else if (first < second) {
+            losses++;
+            llr += lossStep;
+        } else {
+            draws++;
+        }
+        if (llr >= upper)
+            decision = Decision.FirstBetter;
+        else if (llr <= lower)
+            decision = Decision.SecondBetter;
+        return decision;
+    }
+
+    public Decision getDecision() {
+        return decision;
+    }
+
+    public boolean isDecided() {
+        return decision != Decision.Undecided;
+    }
+
+    public double getLogLikelihoodRatio() {
+        return llr;
+    }
+
+    public double getLowerBound() {
+        return lower;
+    }
+
+    public double getUpperBound() {
+        return upper;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getLosses() {
+        return losses;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    /**
+     * Gets the number of seeds added, decisive or not.
+     * @return The number of seeds.
+     */
+    public int getGames() {
+        return wins + losses + draws;
+    }
+}
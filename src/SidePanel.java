@@ -50,7 +50,7 @@ public class SidePanel extends JPanel {
 	
 	private static final int STATISTICS_OFFSET = 150;
 	
-	private static final int CONTROLS_OFFSET = 320;
+	private static final int CONTROLS_OFFSET = 300;
 	
 	private static final int MESSAGE_STRIDE = 30;
 	
@@ -87,9 +87,11 @@ public class SidePanel extends JPanel {
 		
 		//Draw the content for the statistics category.
 		int drawY = STATISTICS_OFFSET;
-		g.drawString("Total Score: " + game.getScore(), LARGE_OFFSET, drawY += MESSAGE_STRIDE);
-		g.drawString("Fruit Eaten: " + game.getFruitsEaten(), LARGE_OFFSET, drawY += MESSAGE_STRIDE);
-		g.drawString("Fruit Score: " + game.getNextFruitScore(), LARGE_OFFSET, drawY += MESSAGE_STRIDE);
+		g.drawString("Total Score: " + game.getEngine().getScore(), LARGE_OFFSET, drawY += MESSAGE_STRIDE);
+		g.drawString("Fruit Eaten: " + game.getEngine().getFruitsEaten(), LARGE_OFFSET, drawY += MESSAGE_STRIDE);
+		g.drawString("Fruit Score: " + game.getEngine().getNextFruitScore(), LARGE_OFFSET, drawY += MESSAGE_STRIDE);
+		String speed = game.isTurbo() ? "Turbo" : String.format("%.1f", game.getTicksPerSecond());
+		g.drawString("Speed: " + speed + " (" + game.getMeasuredTicksPerSecond() + " ticks/s)", LARGE_OFFSET, drawY += MESSAGE_STRIDE);
 		//Draw the content for the controls category.
 		drawY = CONTROLS_OFFSET;
 		g.drawString("Move Up: W / Up Arrowkey", LARGE_OFFSET, drawY += MESSAGE_STRIDE);
@@ -97,6 +99,7 @@ public class SidePanel extends JPanel {
 		g.drawString("Move Left: A / Left Arrowkey", LARGE_OFFSET, drawY += MESSAGE_STRIDE);
 		g.drawString("Move Right: D / Right Arrowkey", LARGE_OFFSET, drawY += MESSAGE_STRIDE);
 		g.drawString("Pause Game: P / Space", LARGE_OFFSET, drawY += MESSAGE_STRIDE);
+		g.drawString("Speed: + / -, Turbo: T, Board: R", LARGE_OFFSET, drawY += MESSAGE_STRIDE);
 	}
 
 }
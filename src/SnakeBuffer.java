@@ -0,0 +1,280 @@
+import java.awt.Point;
+import java.util.List;
+
+/**
+ * The {@code SnakeBuffer} class is the compact representation of a snake used
+ * by the solvers. The body is a ring buffer of cell indices (head first) and
+ * the occupied cells are mirrored in a {@link Bitboard}, so checking whether a
+ * cell belongs to the snake costs the same for a snake of 5 or 500 cells.
+ *
+ */
+public class SnakeBuffer {
+
+    /**
+     * The smallest ring capacity we allocate.
+     */
+    private static final int MIN_CAPACITY = 16;
+
+    /**
+     * The cell indices of the body. Always a power of two in length.
+     */
+    private int[] cells;
+
+    /**
+     * The position of the head in {@code cells}.
+     */
+    private int headIndex;
+
+    /**
+     * The number of cells in the body.
+     */
+    private int size;
+
+    /**
+     * The cells currently covered by the body.
+     */
+    private final Bitboard occupancy;
+
+    /**
+     * Whether or not the last head added landed on a cell the body already covered.
+     */
+    private boolean headOverlap;
+
+    /**
+     * The XOR of the Zobrist link keys of every segment and the one in front
+     * of it, kept up to date on each move.
+     */
+    private long bodyHash;
+
+    /**
+     * Creates a new, empty snake.
+     */
+    public SnakeBuffer() {
+        this.cells = new int[MIN_CAPACITY];
+        this.occupancy = new Bitboard();
+    }
+
+    /**
+     * Creates a copy of another snake. Only the used part of the ring is
+     * copied, so the cost is proportional to the snake length.
+     * @param other The snake to copy.
+     */
+    public SnakeBuffer(SnakeBuffer other) {
+        this.cells = new int[capacityFor(other.size + 1)];
+        for (int i = 0; i < other.size; i++) {
+            cells[i] = other.get(i);
+        }
+        this.headIndex = 0;
+        this.size = other.size;
+        this.occupancy = new Bitboard(other.occupancy);
+        this.headOverlap = other.headOverlap;
+        this.bodyHash = other.bodyHash;
+    }
+
+    /**
+     * Creates a snake from a list of points ordered from head to tail.
+     * @param points The points of the snake.
+     * @return The new snake.
+     */
+    public static SnakeBuffer of(List<Point> points) {
+        SnakeBuffer snake = new SnakeBuffer();
+        for (Point p : points) {
+            snake.addLast(Bitboard.cell(p.x, p.y));
+        }
+        return snake;
+    }
+
+    private static int capacityFor(int size) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < size) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= cells.length) {
+            return;
+        }
+        int[] grown = new int[capacityFor(required)];
+        for (int i = 0; i < size; i++) {
+            grown[i] = get(i);
+        }
+        cells = grown;
+        headIndex = 0;
+    }
+
+    /**
+     * Adds a new head to the snake.
+     * @param cell The cell index of the new head.
+     */
+    public void addFirst(int cell) {
+        ensureCapacity(size + 1);
+        headIndex = (headIndex - 1) & (cells.length - 1);
+        cells[headIndex] = cell;
+        if (size > 0) {
+            bodyHash ^= Zobrist.link(cells[(headIndex + 1) & (cells.length - 1)], cell);
+        }
+        size++;
+        headOverlap = occupancy.get(cell);
+        occupancy.set(cell);
+    }
+
+    /**
+     * Adds a new tail to the snake.
+     * @param cell The cell index of the new tail.
+     */
+    public void addLast(int cell) {
+        ensureCapacity(size + 1);
+        if (size > 0) {
+            bodyHash ^= Zobrist.link(cell, peekLast());
+        }
+        cells[(headIndex + size) & (cells.length - 1)] = cell;
+        size++;
+        occupancy.set(cell);
+    }
+
+    /**
+     * Removes the tail of the snake.
+     *
+     * Once the head has overlapped the body, the snake has crashed and the
+     * occupancy may lose that cell when the older segment leaves; crashed
+     * states are terminal so nothing reads them after that.
+     * @return The cell index of the removed tail.
+     */
+    public int removeLast() {
+        int tailIndex = (headIndex + size - 1) & (cells.length - 1);
+        int cell = cells[tailIndex];
+        size--;
+        occupancy.clear(cell);
+        if (size > 0) {
+            bodyHash ^= Zobrist.link(cell, get(size - 1));
+        }
+        return cell;
+    }
+
+    /**
+     * Moves the snake one cell without growing: the tail leaves first, so
+     * moving onto the cell the tail just left is not a collision.
+     * @param cell The cell index of the new head.
+     */
+    public void step(int cell) {
+        removeLast();
+        addFirst(cell);
+    }
+
+    /**
+     * Overwrites this snake with the contents of another one, reusing the
+     * existing ring when it is large enough.
+     * @param other The snake to copy.
+     */
+    public void copyFrom(SnakeBuffer other) {
+        if (cells.length < other.size + 1) {
+            cells = new int[capacityFor(other.size + 1)];
+        }
+        for (int i = 0; i < other.size; i++) {
+            cells[i] = other.get(i);
+        }
+        headIndex = 0;
+        size = other.size;
+        occupancy.copyFrom(other.occupancy);
+        headOverlap = other.headOverlap;
+        bodyHash = other.bodyHash;
+    }
+
+    /**
+     * Gets the i-th cell of the body, counting from the head.
+     * @param i The position from the head.
+     * @return The cell index.
+     */
+    public int get(int i) {
+        return cells[(headIndex + i) & (cells.length - 1)];
+    }
+
+    /**
+     * Gets the cell of the head.
+     * @return The cell index of the head.
+     */
+    public int peekFirst() {
+        return cells[headIndex];
+    }
+
+    /**
+     * Gets the cell of the tail.
+     * @return The cell index of the tail.
+     */
+    public int peekLast() {
+        return get(size - 1);
+    }
+
+    public int headX() {
+        return Bitboard.cellX(peekFirst());
+    }
+
+    public int headY() {
+        return Bitboard.cellY(peekFirst());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks whether the body covers a cell.
+     * @param cell The cell index.
+     * @return Whether or not the cell is part of the snake.
+     */
+    public boolean contains(int cell) {
+        return occupancy.get(cell);
+    }
+
+    /**
+     * Checks whether the head was moved onto the snake's own body.
+     * @return Whether or not the snake has run into itself.
+     */
+    public boolean headOverlapsBody() {
+        return headOverlap;
+    }
+
+    /**
+     * Gets the cells covered by the body.
+     * @return The occupancy bitboard. Callers must not modify it.
+     */
+    public Bitboard getOccupancy() {
+        return occupancy;
+    }
+
+    /**
+     * Gets the Zobrist hash of the snake: its head plus the link of every
+     * segment to the one in front of it, which pins down the order of the
+     * body. Constant time, the body part is maintained as the snake moves.
+     * @return The hash of the snake.
+     */
+    public long zobristKey() {
+        if (size == 0) {
+            return 0L;
+        }
+        return bodyHash ^ Zobrist.HEAD[peekFirst()];
+    }
+
+    /**
+     * Gets the Zobrist hash the snake would have after {@link #step(int)},
+     * without moving it.
+     * @param cell The cell index of the new head.
+     * @return The hash of the moved snake.
+     */
+    public long zobristKeyAfterStep(int cell) {
+        if (size <= 1) {
+            return Zobrist.HEAD[cell];
+        }
+        return bodyHash ^ Zobrist.link(peekLast(), get(size - 2)) ^ Zobrist.link(peekFirst(), cell) ^ Zobrist.HEAD[cell];
+    }
+
+    public String toString() {
+        return "(" + headX() + ", " + headY() + ") length " + size;
+    }
+}
@@ -0,0 +1,303 @@
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The {@code SolverMetrics} class measures one solver across every game of
+ * the JVM and publishes the figures as a JMX MBean, named
+ * {@code snake:type=SolverMetrics,solver=<mode>}. It keeps latency
+ * histograms of the ticks of the games the solver drives and of the calls
+ * of its search, and counts the work the searches do.
+ *
+ * Recording is a few atomic increments, so the games record every tick and
+ * every search; the percentiles are only worked out when JMX reads them.
+ *
+ */
+public class SolverMetrics implements SolverMetricsMBean {
+
+    /**
+     * How long a window of the recent percentiles lasts.
+     */
+    private static final long WINDOW_NANOS = 60_000_000_000L;
+
+    private static final SolverMetrics[] METRICS = register();
+
+    private final SolverMode mode;
+
+    private final LatencyHistogram ticks = new LatencyHistogram();
+    private final LatencyHistogram searches = new LatencyHistogram();
+
+    /*
+     * The counts of each histogram at the start of the previous and of the
+     * current window. The recent percentiles are taken since the previous
+     * start, so they always cover at least one full window.
+     */
+    private long[] ticksPrevious = new long[LatencyHistogram.BUCKET_COUNT];
+    private long[] ticksCurrent = new long[LatencyHistogram.BUCKET_COUNT];
+    private long[] searchesPrevious = new long[LatencyHistogram.BUCKET_COUNT];
+    private long[] searchesCurrent = new long[LatencyHistogram.BUCKET_COUNT];
+    private long windowStart = System.nanoTime();
+
+    private final LongAdder searchNanos = new LongAdder();
+    private final LongAdder nodesExpanded = new LongAdder();
+    private final AtomicInteger openListPeak = new AtomicInteger();
+    private final LongAdder playouts = new LongAdder();
+    private volatile int treeSize;
+    private final LongAdder replans = new LongAdder();
+
+    private SolverMetrics(SolverMode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Gets the metrics of a solver.
+     * @param mode The solver.
+     * @return The metrics, shared by every game.
+     */
+    public static SolverMetrics of(SolverMode mode) {
+        return METRICS[mode.ordinal()];
+    }
+
+    /**
+     * Creates the metrics of every solver and registers them with the
+     * platform MBean server. A failed registration only costs the JMX view.
+     */
+    private static SolverMetrics[] register() {
+        SolverMode[] modes = SolverMode.values();
+        SolverMetrics[] metrics = new SolverMetrics[modes.length];
+        for (SolverMode mode : modes) {
+            metrics[mode.ordinal()] = new SolverMetrics(mode);
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(metrics[mode.ordinal()],
+                        new ObjectName("snake:type=SolverMetrics,solver=" + mode));
+            } catch (JMException | RuntimeException e) {
+                Log.log(Log.Level.WARN, "Could not register the solver metrics with JMX");
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Records a tick of a game driven by this solver.
+     * @param nanos The time the tick took.
+     */
+    void tickFinished(long nanos) {
+        ticks.record(nanos);
+    }
+
+    /**
+     * Records a call of the search.
+     * @param nanos The time the call took.
+     * @param expanded The number of nodes it expanded.
+     * @param openListSize The largest its open list grew.
+     */
+    void searchFinished(long nanos, long expanded, int openListSize) {
+        searches.record(nanos);
+        searchNanos.add(nanos);
+        nodesExpanded.add(expanded);
+        int peak = openListPeak.get();
+        while (openListSize > peak && !openListPeak.compareAndSet(peak, openListSize))
+            peak = openListPeak.get();
+    }
+
+    /**
+     * Records the playouts of a call of MCTS, and the size of its tree after it.
+     * @param count The number of playouts.
+     * @param size The number of nodes in the tree.
+     */
+    void playoutsFinished(long count, int size) {
+        playouts.add(count);
+        treeSize = size;
+    }
+
+    /**
+     * Records that a plan could no longer be followed and was searched again.
+     */
+    void replanned() {
+        replans.increment();
+    }
+
+    @Override
+    public String getSolver() {
+        return mode.toString();
+    }
+
+    @Override
+    public long getTickCount() {
+        return LatencyHistogram.count(ticks.snapshot());
+    }
+
+    @Override
+    public double getTickLatencyMeanMicros() {
+        return LatencyHistogram.mean(ticks.snapshot()) / 1e3;
+    }
+
+    @Override
+    public double getTickLatencyP50Micros() {
+        return micros(ticks.snapshot(), 50, ticks.getMax());
+    }
+
+    @Override
+    public double getTickLatencyP90Micros() {
+        return micros(ticks.snapshot(), 90, ticks.getMax());
+    }
+
+    @Override
+    public double getTickLatencyP99Micros() {
+        return micros(ticks.snapshot(), 99, ticks.getMax());
+    }
+
+    @Override
+    public double getTickLatencyP999Micros() {
+        return micros(ticks.snapshot(), 99.9, ticks.getMax());
+    }
+
+    @Override
+    public double getTickLatencyMaxMicros() {
+        return ticks.getMax() / 1e3;
+    }
+
+    @Override
+    public double getRecentTickLatencyP50Micros() {
+        return micros(recentTicks(), 50, ticks.getMax());
+    }
+
+    @Override
+    public double getRecentTickLatencyP99Micros() {
+        return micros(recentTicks(), 99, ticks.getMax());
+    }
+
+    @Override
+    public long getSearchCount() {
+        return LatencyHistogram.count(searches.snapshot());
+    }
+
+    @Override
+    public double getSearchLatencyMeanMicros() {
+        return LatencyHistogram.mean(searches.snapshot()) / 1e3;
+    }
+
+    @Override
+    public double getSearchLatencyP50Micros() {
+        return micros(searches.snapshot(), 50, searches.getMax());
+    }
+
+    @Override
+    public double getSearchLatencyP90Micros() {
+        return micros(searches.snapshot(), 90, searches.getMax());
+    }
+
+    @Override
+    public double getSearchLatencyP99Micros() {
+        return micros(searches.snapshot(), 99, searches.getMax());
+    }
+
+    @Override
+    public double getSearchLatencyP999Micros() {
+        return micros(searches.snapshot(), 99.9, searches.getMax());
+    }
+
+    @Override
+    public double getSearchLatencyMaxMicros() {
+        return searches.getMax() / 1e3;
+    }
+
+    @Override
+    public double getRecentSearchLatencyP50Micros() {
+        return micros(recentSearches(), 50, searches.getMax());
+    }
+
+    @Override
+    public double getRecentSearchLatencyP99Micros() {
+        return micros(recentSearches(), 99, searches.getMax());
+    }
+
+    @Override
+    public long getNodesExpanded() {
+        return nodesExpanded.sum();
+    }
+
+    @Override
+    public int getOpenListPeak() {
+        return openListPeak.get();
+    }
+
+    @Override
+    public long getPlayouts() {
+        return playouts.sum();
+    }
+
+    @Override
+    public double getPlayoutsPerSecond() {
+        long nanos = searchNanos.sum();
+        return nanos == 0 ? 0 : playouts.sum() * 1e9 / nanos;
+    }
+
+    @Override
+    public int getTreeSize() {
+        return treeSize;
+    }
+
+    @Override
+    public long getReplans() {
+        return replans.sum();
+    }
+
+    @Override
+    public synchronized void resetStatistics() {
+        ticks.reset();
+        searches.reset();
+        ticksPrevious = new long[LatencyHistogram.BUCKET_COUNT];
+        ticksCurrent = new long[LatencyHistogram.BUCKET_COUNT];
+        searchesPrevious = new long[LatencyHistogram.BUCKET_COUNT];
+        searchesCurrent = new long[LatencyHistogram.BUCKET_COUNT];
+        windowStart = System.nanoTime();
+        searchNanos.reset();
+        nodesExpanded.reset();
+        openListPeak.set(0);
+        playouts.reset();
+        treeSize = 0;
+        replans.reset();
+    }
+
+    private synchronized long[] recentTicks() {
+        rollWindow();
+        return difference(ticks.snapshot(), ticksPrevious);
+    }
+
+    private synchronized long[] recentSearches() {
+        rollWindow();
+        return difference(searches.snapshot(), searchesPrevious);
+    }
+
+    /**
+     * Starts a new window once the current one is over.
+     */
+    private void rollWindow() {
+        long now = System.nanoTime();
+        if (now - windowStart < WINDOW_NANOS)
+            return;
+        ticksPrevious = ticksCurrent;
+        ticksCurrent = ticks.snapshot();
+        searchesPrevious = searchesCurrent;
+        searchesCurrent = searches.snapshot();
+        windowStart = now;
+    }
+
+    private static long[] difference(long[] counts, long[] since) {
+        long[] recent = new long[counts.length];
+        for (int i = 0; i < counts.length; i++)
+            recent[i] = Math.max(0, counts[i] - since[i]);
+        return recent;
+    }
+
+    /**
+     * Gets a percentile in microseconds, no higher than the largest duration
+     * recorded: the bucket of the largest one may reach past it.
+     */
+    private static double micros(long[] counts, double percentile, long max) {
+        return Math.min(LatencyHistogram.valueAtPercentile(counts, percentile), max) / 1e3;
+    }
+}
@@ -0,0 +1,52 @@
+/**
+ * The {@code SolverMetricsMBean} interface is what JMX shows of the
+ * {@link SolverMetrics} of one solver. The latencies are in microseconds;
+ * the recent ones cover the last one to two minutes, the others everything
+ * since the start or the last reset.
+ *
+ */
+public interface SolverMetricsMBean {
+
+    String getSolver();
+
+    /*
+     * The ticks of the games this solver drives.
+     */
+    long getTickCount();
+    double getTickLatencyMeanMicros();
+    double getTickLatencyP50Micros();
+    double getTickLatencyP90Micros();
+    double getTickLatencyP99Micros();
+    double getTickLatencyP999Micros();
+    double getTickLatencyMaxMicros();
+    double getRecentTickLatencyP50Micros();
+    double getRecentTickLatencyP99Micros();
+
+    /*
+     * The calls of this solver's search, in any game.
+     */
+    long getSearchCount();
+    double getSearchLatencyMeanMicros();
+    double getSearchLatencyP50Micros();
+    double getSearchLatencyP90Micros();
+    double getSearchLatencyP99Micros();
+    double getSearchLatencyP999Micros();
+    double getSearchLatencyMaxMicros();
+    double getRecentSearchLatencyP50Micros();
+    double getRecentSearchLatencyP99Micros();
+
+    /*
+     * The work of the searches.
+     */
+    long getNodesExpanded();
+    int getOpenListPeak();
+    long getPlayouts();
+    double getPlayoutsPerSecond();
+    int getTreeSize();
+    long getReplans();
+
+    /**
+     * Clears every histogram and counter.
+     */
+    void resetStatistics();
+}
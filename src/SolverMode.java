@@ -1,5 +1,8 @@
 public enum SolverMode {
     AStar,
     idAstar,
-    MCTS
+    MCTS,
+    DStarLite,
+    JPS,
+    Hamiltonian
 }
@@ -0,0 +1,258 @@
+import java.util.Arrays;
+import java.util.List;
+import java.awt.Point;
+
+/**
+ * The {@code SpaceTimePlanner} class knows when each snake cell becomes free
+ * and plans paths through time as well as space. The cell k moves from the
+ * end of a snake is left after k + 1 moves, so a path may run through a
+ * body as long as it gets there after the tail has gone. Searching only in
+ * space would report no path in many of those positions.
+ *
+ * A search state is a cell and the move it is reached at, up to the move
+ * the last current body cell frees up; after that only the cells the
+ * planned snake itself covers are blocked, and they are checked against
+ * the path.
+ *
+ */
+public class SpaceTimePlanner {
+
+    private static final int NONE = -1;
+
+    /*
+     * The offsets of the four neighbours of a cell: east, west, north, south.
+     */
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1};
+
+    /**
+     * The first move at which each cell can be entered, 0 for cells no snake covers.
+     */
+    private final int[] freeAt = new int[Bitboard.CELL_COUNT];
+
+    /**
+     * The move after which every cell covered now is free.
+     */
+    private int horizon;
+
+    /*
+     * The search arrays, indexed by cell + CELL_COUNT * min(move, horizon),
+     * grown when a longer snake needs more time layers. Stamped with the
+     * search number so they are never cleared.
+     */
+    private int[] parent = new int[0];
+    private int[] reached = new int[0];
+    private int[] closed = new int[0];
+    private int search;
+
+    /**
+     * The open list: a binary min-heap of states packed with their f and h values.
+     */
+    private long[] heap = new long[64];
+    private int heapSize;
+
+    /**
+     * The last path found, from the start to the goal, every cell included.
+     */
+    private int[] path = new int[Bitboard.CELL_COUNT];
+
+    /**
+     * The number of searches, of searches that found no path, and of open list pushes.
+     */
+    private long searches;
+    private long failures;
+    private long pushes;
+
+    /**
+     * Records when the cells of the snakes free up. A snake shorter than the
+     * length its tail starts moving at keeps its tail for the missing moves.
+     * @param aiSnake The AI snake, head first.
+     * @param playerSnake The player snake, head first, or null.
+     * @param minLength The length above which a snake's tail moves.
+     */
+    public void setSnakes(List<Point> aiSnake, List<Point> playerSnake, int minLength) {
+        Arrays.fill(freeAt, 0);
+        horizon = 0;
+        addSnake(aiSnake, minLength);
+        if (playerSnake != null)
+            addSnake(playerSnake, minLength);
+    }
+
+    private void addSnake(List<Point> snake, int minLength) {
+        int delay = Math.max(0, minLength + 1 - snake.size());
+        int k = snake.size();
+        for (Point p : snake) {
+            // Head first, so the cell k - 1 moves from the end
+            int cell = Bitboard.cell(p.x, p.y);
+            freeAt[cell] = Math.max(freeAt[cell], k + delay);
+            k--;
+        }
+        horizon = Math.max(horizon, snake.size() + delay);
+    }
+
+    /**
+     * Gets the first move at which a cell can be entered.
+     * @param cell The cell index.
+     * @return The number of moves from now, 0 if the cell is free now.
+     */
+    public int freeAt(int cell) {
+        return freeAt[cell];
+    }
+
+    /**
+     * Gets the move from which every cell covered now is free.
+     * @return The number of moves from now.
+     */
+    public int getHorizon() {
+        return horizon;
+    }
+
+    /**
+     * Searches a shortest path through space and time.
+     * @param start The cell of the head.
+     * @param goal The cell of the fruit.
+     * @param length The length of the planned snake, which blocks the cells it just went through.
+     * @return The number of cells of the path, start and goal included, or 0 if none was found.
+     */
+    public int findPath(int start, int goal, int length) {
+        int states = Bitboard.CELL_COUNT * (horizon + 1);
+        if (reached.length < states) {
+            parent = new int[states];
+            reached = new int[states];
+            closed = new int[states];
+            search = 0;
+        }
+        if (++search == 0) {
+            Arrays.fill(reached, 0);
+            Arrays.fill(closed, 0);
+            search = 1;
+        }
+        searches++;
+        heapSize = 0;
+        reached[start] = search;
+        parent[start] = NONE;
+        push(start, 0, heuristic(start, goal));
+        while (heapSize > 0) {
+            long entry = pop();
+            int state = (int) (entry & 0xFFFFF);
+            if (closed[state] == search)
+                continue;
+            closed[state] = search;
+            int cell = state % Bitboard.CELL_COUNT;
+            int move = moveOf(entry, cell, goal);
+            if (cell == goal)
+                return buildPath(state, move);
+            int x = Bitboard.cellX(cell);
+            int y = Bitboard.cellY(cell);
+            int next = move + 1;
+            int layer = Math.min(next, horizon);
+            for (int i = 0; i < 4; i++) {
+                int nx = x + DX[i];
+                int ny = y + DY[i];
+                if (!Bitboard.inBoard(nx, ny))
+                    continue;
+                int neighbour = Bitboard.cell(nx, ny);
+                int child = neighbour + Bitboard.CELL_COUNT * layer;
+                if (freeAt[neighbour] > next || reached[child] == search
+                        || coversCell(state, neighbour, length))
+                    continue;
+                reached[child] = search;
+                parent[child] = state;
+                push(child, next, heuristic(neighbour, goal));
+            }
+        }
+        failures++;
+        return 0;
+    }
+
+    /**
+     * Gets the last path found. Only the first {@code findPath} cells are valid.
+     * @return The cells of the path, from the start to the goal.
+     */
+    public int[] getPath() {
+        return path;
+    }
+
+    public long getSearches() {
+        return searches;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public long getPushes() {
+        return pushes;
+    }
+
+    /**
+     * Checks whether the planned snake, its head on a state, still covers a
+     * cell: the cells its head went through in the last length - 1 moves.
+     */
+    private boolean coversCell(int state, int cell, int length) {
+        for (int i = 1; i < length && state != NONE; i++) {
+            if (state % Bitboard.CELL_COUNT == cell)
+                return true;
+            state = parent[state];
+        }
+        return false;
+    }
+
+    /**
+     * Recovers the move of a popped state from its f value; every step costs one.
+     */
+    private static int moveOf(long entry, int cell, int goal) {
+        int f = (int) (entry >>> 40);
+        return f - heuristic(cell, goal);
+    }
+
+    private int buildPath(int state, int move) {
+        int length = move + 1;
+        if (path.length < length)
+            path = new int[length];
+        for (int i = length - 1; i >= 0; i--) {
+            path[i] = state % Bitboard.CELL_COUNT;
+            state = parent[state];
+        }
+        return length;
+    }
+
+    private void push(int state, int g, int h) {
+        if (heapSize == heap.length)
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        long entry = ((long) (g + h) << 40) | ((long) h << 20) | state;
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heap[up] <= entry)
+                break;
+            heap[i] = heap[up];
+            i = up;
+        }
+        heap[i] = entry;
+        pushes++;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize)
+                break;
+            if (child + 1 < heapSize && heap[child + 1] < heap[child])
+                child++;
+            if (heap[child] >= last)
+                break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+
+    private static int heuristic(int a, int b) {
+        return Math.abs(Bitboard.cellX(a) - Bitboard.cellX(b)) + Math.abs(Bitboard.cellY(a) - Bitboard.cellY(b));
+    }
+}
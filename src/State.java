@@ -1,6 +1,4 @@
-import java.awt.*;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.random.RandomGenerator;
 
 public class State {
     static final int IN_PROGRESS = 0;
@@ -13,139 +11,163 @@ public class State {
     static final int PLAYER_BOARD_WIN = -400;
     static final int AI__BOARD_WIN = 0;
 
-    BoardPanel board;
-    LinkedList<Point> snake, playerSnake;
+    /*
+     * The head offsets of the four moves: east, west, north, south.
+     */
+    private static final int[] DX = {1, -1, 0, 0};
+    private static final int[] DY = {0, 0, -1, 1};
+
+    Board board;
+    SnakeBuffer snake, playerSnake;
     boolean isAI;
-    int visitCount;
-    double winScore;
+
+    /*
+     * The candidate moves of playRandomMove, reused by every call.
+     */
+    private final int[] candidates = new int[4];
 
     public State() {
-        board = new BoardPanel();
-        this.snake = new LinkedList<>();
-        this.playerSnake = new LinkedList<>();
+        board = new Board();
+        this.snake = new SnakeBuffer();
+        this.playerSnake = new SnakeBuffer();
         isAI = true;
-        visitCount = 0;
-        winScore = Integer.MIN_VALUE;
     }
 
     public State(State state) {
         this.board = state.board;
-        this.snake = (LinkedList<Point>) state.snake.clone();
-        this.playerSnake = (LinkedList<Point>) state.playerSnake.clone();
+        this.snake = new SnakeBuffer(state.snake);
+        this.playerSnake = new SnakeBuffer(state.playerSnake);
+        this.isAI = state.isAI;
+    }
+
+    /**
+     * Overwrites this state with another one, reusing the snake buffers.
+     * @param state The state to copy.
+     */
+    void copyFrom(State state) {
+        this.board = state.board;
+        this.snake.copyFrom(state.snake);
+        this.playerSnake.copyFrom(state.playerSnake);
         this.isAI = state.isAI;
-        this.visitCount = state.visitCount;
-        this.winScore = state.winScore;
     }
 
     public String toString(){
-        return "State " + (isAI ? "AI" : "PLAYER") + " Score:( " + winScore + " , " + visitCount + " ) " +
-                "snake: (" + snake.peekFirst().getX()+", "+snake.peekFirst().getY() +
-                ") player snake: (" + playerSnake.peekFirst().getX() + ", " + playerSnake.peekFirst().getY()+")";
+        return "State " + (isAI ? "AI" : "PLAYER") + " " +
+                "snake: (" + snake.headX()+", "+snake.headY() +
+                ") player snake: (" + playerSnake.headX() + ", " + playerSnake.headY()+")";
     }
 
     boolean getOpponent() { return !isAI; }
 
-    public List<State> getAllPossibleStates(Node self) {
-        List<State> possibleStates = new LinkedList<>();
-        possibleStates.addAll(neighbors((isAI ? snake : playerSnake)));
-        return possibleStates;
+    /**
+     * Hashes the whole position: both snakes, the side to move and the fruit.
+     * @return The Zobrist hash of this state.
+     */
+    long zobristKey() {
+        long key = snake.zobristKey() ^ Zobrist.mix(playerSnake.zobristKey())
+                ^ Zobrist.FRUIT[Bitboard.cell(board.fruitX, board.fruitY)];
+        return isAI ? key ^ Zobrist.AI_TO_MOVE : key;
     }
 
-    private List<State> neighbors(LinkedList<Point> snake) {
-        List<State> res = new LinkedList<>();
-        Direction[] allDirections =
-                {Direction.East, Direction.West, Direction.North, Direction.South};
-        // Generate a list of neighbors of snake
-        for(Direction direction: allDirections){
-            State tempState = generateNeighbor(this, direction);
-            if(tempState != null)
-                res.add(tempState);
-        }
-        return res;
+    /**
+     * Hashes the position reached by {@link #play(int)}, without playing the move.
+     * @param cell The cell the side to move steps to.
+     * @return The Zobrist hash of the next state.
+     */
+    long zobristKeyAfter(int cell) {
+        long aiKey = isAI ? snake.zobristKeyAfterStep(cell) : snake.zobristKey();
+        long playerKey = isAI ? playerSnake.zobristKey() : playerSnake.zobristKeyAfterStep(cell);
+        long key = aiKey ^ Zobrist.mix(playerKey) ^ Zobrist.FRUIT[Bitboard.cell(board.fruitX, board.fruitY)];
+        return isAI ? key : key ^ Zobrist.AI_TO_MOVE;
     }
 
-    private State generateNeighbor(State state, Direction dir){
-        State neighbor = new State(state);
-        Point head;
-        if(neighbor.isAI){
-            head = new Point(neighbor.snake.peekFirst());
-        }else{
-            head = new Point(neighbor.playerSnake.peekFirst());
-        }
-        switch (dir){
-            case East:
-                head.x++;
-                break;
-            case West:
-                head.x--;
-                break;
-            case South:
-                head.y++;
-                break;
-            case North:
-                head.y--;
-                break;
-        }
-
-        if (!board.inBoard(head)) {
-            //System.err.println("return null for on board");
-            return null;
-        }
-        if (board.getTile(head) == TileType.SnakeBody){
-            //System.err.println("return null for any kind of crash");
-            return null;
+    /**
+     * Lists the cells the side to move may step to, in the order east, west,
+     * north, south.
+     * @param cells Receives the cells, room for four is enough.
+     * @return The number of cells written.
+     */
+    int legalMoves(int[] cells) {
+        SnakeBuffer mover = isAI ? snake : playerSnake;
+        int x = mover.headX();
+        int y = mover.headY();
+        int count = 0;
+        for (int i = 0; i < 4; i++) {
+            int nx = x + DX[i];
+            int ny = y + DY[i];
+            if (Bitboard.inBoard(nx, ny) && board.getTile(nx, ny) != TileType.SnakeBody)
+                cells[count++] = Bitboard.cell(nx, ny);
         }
+        return count;
+    }
 
-
-        if(neighbor.isAI){
-            neighbor.snake.addFirst(head);
-            neighbor.snake.removeLast();
-        }else{
-            neighbor.playerSnake.addFirst(head);
-            neighbor.playerSnake.removeLast();
+    /**
+     * Moves the side to move to a cell and hands the turn to the other side.
+     * @param cell The cell the side to move steps to.
+     */
+    void play(int cell) {
+        if (isAI) {
+            snake.step(cell);
+        } else {
+            playerSnake.step(cell);
         }
-        return neighbor;
+        togglePlayer();
     }
 
-
-    void addScore(double score) {
-        if (this.winScore != Integer.MIN_VALUE) {
-            this.winScore += score;
-        } else{
-            // The first time
-            this.winScore = score;
-        }
+    /**
+     * Plays a random legal move in place and hands the turn to the other
+     * side. The move is never into a pocket smaller than the side to move
+     * while a move into more room exists; the pockets are only looked for
+     * when the moves may lead into separate regions, which on an open board
+     * they never do. The remaining moves are equally likely.
+     * @param random The random generator of the calling thread.
+     * @param reachability The reachability scratch of the calling thread.
+     * @return false if the side to move has no legal move, nothing is played then.
+     */
+    boolean playRandomMove(RandomGenerator random, Reachability reachability) {
+        int count = legalMoves(candidates);
+        if (count == 0)
+            return false;
+        count = pruneMoves(candidates, count, reachability);
+        play(candidates[count == 1 ? 0 : random.nextInt(count)]);
+        return true;
     }
 
-    State randomPlay() {
-//        List<Position> availablePositions = this.board.getEmptyPositions();
-//        int totalPossibilities = availablePositions.size();
-//        int selectRandom = (int) (Math.random() * totalPossibilities);
-//        this.board.performMove(this.playerNo, availablePositions.get(selectRandom));
-        LinkedList<Point> snakeToCheck = isAI ? snake : playerSnake;
-        List<State>neighborList = neighbors(snakeToCheck);
-        int selectRandom;
-        selectRandom = (int) (Math.random() * neighborList.size());
-        return neighborList.get(selectRandom);
+    /**
+     * Drops the moves of the side to move that lead into a pocket smaller than it.
+     * @param cells The cells from {@link #legalMoves(int[])}, pruned in place.
+     * @param count The number of cells.
+     * @param reachability The reachability scratch of the calling thread.
+     * @return The number of cells left.
+     */
+    int pruneMoves(int[] cells, int count, Reachability reachability) {
+        SnakeBuffer mover = isAI ? snake : playerSnake;
+        SnakeBuffer other = isAI ? playerSnake : snake;
+        if (count < 2 || !Reachability.mayDivide(mover.peekFirst(), mover, other))
+            return count;
+        return reachability.prune(cells, count, mover, other);
     }
 
     void togglePlayer() {
         this.isAI = !this.isAI;
     }
 
+    /*
+     * Every collision test below is a bit lookup, so the cost does not depend
+     * on the length of the snakes. Heads never leave the board here because
+     * legalMoves and playRandomMove refuse those moves.
+     */
     public int checkStatus(){
-        LinkedList<Point> snakeToCheck = isAI ? snake : playerSnake;
-        // System.out.println("Checking status for: isAI= " + isAI + " at: " + snakeToCheck.peekFirst());
-        if (!board.inBoard(snakeToCheck.peekFirst())){
-            //System.out.println(isAI+" on board");
-            return isAI ? PLAYER_BOARD_WIN : AI__BOARD_WIN;
-        }else if(snakeToCheck.peekFirst().x == board.fruitX && snakeToCheck.peekFirst().y == board.fruitY){
+        SnakeBuffer snakeToCheck = isAI ? snake : playerSnake;
+        int head = snakeToCheck.peekFirst();
+        // System.out.println("Checking status for: isAI= " + isAI + " at: " + snakeToCheck);
+        if(head == Bitboard.cell(board.fruitX, board.fruitY)){
             //System.out.println(isAI+" fruit win");
             return isAI ? AI_WIN : PLAYER_WIN;
-        }else if(kms(isAI,snakeToCheck.peekFirst())) {
+        }else if(kms(isAI)) {
             //System.out.println(isAI+" kms");
             return PLAYER_KMS_WIN;
-        }else if(onSnakes(isAI, snakeToCheck.peekFirst())) {
+        }else if(onSnakes(isAI, head)) {
             //System.out.println(isAI+" crash");
             return isAI ? PLAYER_CRASH_WIN : AI_CRASH_WIN;
         }else {
@@ -153,53 +175,17 @@ public class State {
         }
     }
 
-    private boolean kms(Boolean isAI, Point headToCheck) {
-        if (isAI) {
-            for (Point p : this.snake) {
-                if (p == headToCheck) {
-                    continue;
-                } else {
-                    if (p.equals(headToCheck)) {
-
-                        return true;
-                    }
-                }
-            }
-        }
-        return false;
+    private boolean kms(boolean isAI) {
+        return isAI && snake.headOverlapsBody();
     }
     /*
      * Checks if the headToCheck overlaps any snake body
      */
-    private boolean onSnakes(Boolean isAI, Point headToCheck){
+    private boolean onSnakes(boolean isAI, int headToCheck){
         if(isAI){
-            for(Point p : this.snake){
-                if (p == headToCheck){
-                    continue;
-                } else {
-                    if(p.equals(headToCheck))
-                        return true;
-                }
-            }
-            for(Point p : this.playerSnake){
-                if(p.equals(headToCheck))
-                    return true;
-            }
-            return false;
+            return snake.headOverlapsBody() || playerSnake.contains(headToCheck);
         }else{
-            for(Point p : this.playerSnake){
-                if (p == headToCheck){
-                    continue;
-                } else {
-                    if(p.equals(headToCheck))
-                        return true;
-                }
-            }
-            for(Point p : this.snake){
-                if(p.equals(headToCheck))
-                    return true;
-            }
-            return false;
+            return playerSnake.headOverlapsBody() || snake.contains(headToCheck);
         }
     }
 }
\ No newline at end of file
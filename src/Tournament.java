@@ -0,0 +1,325 @@
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * The {@code Tournament} class compares solver configurations. Every entrant
+ * plays the same fixed seeds on a {@link GameHost}, so each pair of entrants
+ * is compared game by game on identical fruit sequences, and an
+ * {@link SPRT} per pair says when the seeds played so far are enough.
+ *
+ * The seeds are played in batches. After each batch the tests of the pairs
+ * take in the seeds in order, and the entrants whose pairs are all decided
+ * stop playing. The report gives, per entrant, the fruits eaten, the ticks
+ * survived and the percentiles of the time per tick, and per pair the
+ * outcome of its test.
+ *
+ * The player snake of an MCTS game is steered by the host's autopilot, and
+ * only the fruits of the AI snake count. The two snakes share the board and
+ * the game ends when either one crashes, so MCTS entrants are only compared
+ * with each other; a tournament mixing them with the other modes is refused.
+ *
+ */
+public class Tournament {
+
+    /**
+     * A solver configuration taking part in the tournament.
+     */
+    public static final class Entrant {
+
+        private final String name;
+        private final SolverMode mode;
+        private final Consumer<GameEngine> setup;
+
+        /**
+         * Creates an entrant.
+         * @param name The name shown in the report.
+         * @param mode The solver driving the AI snake.
+         * @param setup Configures each engine before its game starts, or null.
+         */
+        public Entrant(String name, SolverMode mode, Consumer<GameEngine> setup) {
+            this.name = name;
+            this.mode = mode;
+            this.setup = setup;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Parses an entrant from the command line, as a solver mode followed
+         * by engine settings: {@code MODE[:key=value,...]}. The keys are
+         * iterations, tickShare, nodes, transpositions, cycleFill, parallel
+         * and threads.
+         * @param spec The description of the entrant.
+         * @return The entrant, named after the description.
+         */
+        public static Entrant parse(String spec) {
+            int colon = spec.indexOf(':');
+            SolverMode mode = SolverMode.valueOf(colon < 0 ? spec : spec.substring(0, colon));
+            if (colon < 0)
+                return new Entrant(spec, mode, null);
+            List<Consumer<GameEngine>> settings = new ArrayList<>();
+            MCTSParallelism[] parallelism = {MCTSParallelism.Sequential};
+            int[] threads = {1};
+            for (String setting : spec.substring(colon + 1).split(",")) {
+                String[] pair = setting.split("=", 2);
+                if (pair.length != 2)
+                    throw new IllegalArgumentException("Expected key=value: " + setting);
+                String value = pair[1];
+                switch (pair[0]) {
+                    case "iterations":
+                        settings.add(engine -> engine.setMCTSIterationLimit(Integer.parseInt(value)));
+                        break;
+                    case "tickShare":
+                        settings.add(engine -> engine.setMCTSTickShare(Double.parseDouble(value)));
+                        break;
+                    case "nodes":
+                        settings.add(engine -> engine.setMCTSNodeCapacity(Integer.parseInt(value)));
+                        break;
+                    case "transpositions":
+                        settings.add(engine -> engine.setMCTSTranspositions(Integer.parseInt(value)));
+                        break;
+                    case "cycleFill":
+                        settings.add(engine -> engine.setCycleFillRatio(Double.parseDouble(value)));
+                        break;
+                    case "parallel":
+                        parallelism[0] = MCTSParallelism.valueOf(value);
+                        break;
+                    case "threads":
+                        threads[0] = Integer.parseInt(value);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown setting: " + pair[0]);
+                }
+            }
+            settings.add(engine -> engine.setMCTSParallelism(parallelism[0], threads[0]));
+            return new Entrant(spec, mode, engine -> settings.forEach(setting -> setting.accept(engine)));
+        }
+    }
+
+    /**
+     * Two entrants and the test between them.
+     */
+    private static final class Pairing {
+        private final int first;
+        private final int second;
+        private final SPRT test;
+
+        Pairing(int first, int second, SPRT test) {
+            this.first = first;
+            this.second = second;
+            this.test = test;
+        }
+    }
+
+    private final List<Entrant> entrants;
+    private final long[] seeds;
+    private final int maxTicks;
+    private final List<Pairing> pairings = new ArrayList<>();
+
+    /**
+     * The result of each entrant on each seed, null for the seeds it did not play.
+     */
+    private final GameResult[][] results;
+
+    /**
+     * Creates a tournament.
+     * @param entrants The solver configurations, at least two.
+     * @param seeds The seeds, played in this order.
+     * @param maxTicks The number of ticks after which a game is stopped.
+     * @param alpha The error rate of each test in favour of the first entrant of a pair.
+     * @param beta The error rate of each test in favour of the second entrant of a pair.
+     * @param delta How far from an even share of wins an entrant must be to count as better.
+     */
+    public Tournament(List<Entrant> entrants, long[] seeds, int maxTicks, double alpha, double beta, double delta) {
+        if (entrants.size() < 2)
+            throw new IllegalArgumentException("A tournament needs at least two entrants");
+        long mcts = entrants.stream().filter(entrant -> entrant.mode == SolverMode.MCTS).count();
+        if (mcts > 0 && mcts < entrants.size())
+            throw new IllegalArgumentException("MCTS plays against a player snake, it can only be compared with MCTS entrants");
+        this.entrants = new ArrayList<>(entrants);
+        this.seeds = seeds.clone();
+        this.maxTicks = maxTicks;
+        this.results = new GameResult[entrants.size()][seeds.length];
+        for (int i = 0; i < entrants.size(); i++) {
+            for (int j = i + 1; j < entrants.size(); j++)
+                pairings.add(new Pairing(i, j, new SPRT(alpha, beta, delta)));
+        }
+    }
+
+    /**
+     * Plays the tournament until every pair is decided or the seeds run out.
+     * @param host The host to play the games on.
+     * @param batchSize The number of seeds played between two looks at the tests.
+     */
+    public void run(GameHost host, int batchSize) {
+        int next = 0;
+        while (next < seeds.length) {
+            boolean[] playing = new boolean[entrants.size()];
+            boolean undecided = false;
+            for (Pairing pairing : pairings) {
+                if (!pairing.test.isDecided()) {
+                    playing[pairing.first] = true;
+                    playing[pairing.second] = true;
+                    undecided = true;
+                }
+            }
+            if (!undecided)
+                break;
+
+            int end = Math.min(seeds.length, next + Math.max(1, batchSize));
+            List<CompletableFuture<GameResult>> games = new ArrayList<>();
+            for (int s = next; s < end; s++) {
+                for (int e = 0; e < entrants.size(); e++) {
+                    if (!playing[e] || results[e][s] != null)
+                        continue;
+                    Entrant entrant = entrants.get(e);
+                    int entrantIndex = e;
+                    int seedIndex = s;
+                    games.add(host.submit(entrant.mode, seeds[s], maxTicks, entrant.setup)
+                            .thenApply(result -> results[entrantIndex][seedIndex] = result));
+                }
+            }
+            CompletableFuture.allOf(games.toArray(new CompletableFuture<?>[0])).join();
+
+            // Feed the seeds in order, so a test stops at the exact seed it is decided on
+            for (int s = next; s < end; s++) {
+                for (Pairing pairing : pairings) {
+                    if (!pairing.test.isDecided())
+                        pairing.test.add(results[pairing.first][s].getFruitsEaten(), results[pairing.second][s].getFruitsEaten());
+                }
+            }
+            next = end;
+        }
+    }
+
+    /**
+     * Prints the statistics of each entrant and the outcome of each pair.
+     * @param out The stream to print to.
+     */
+    public void printReport(PrintStream out) {
+        out.printf("%-32s %6s %8s %9s %9s %9s %9s %9s%n",
+                "Entrant", "Games", "Fruits", "Ticks", "p50 us", "p90 us", "p99 us", "max us");
+        for (int e = 0; e < entrants.size(); e++) {
+            int games = 0;
+            long fruits = 0;
+            long ticks = 0;
+            for (GameResult result : results[e]) {
+                if (result == null)
+                    continue;
+                games++;
+                fruits += result.getFruitsEaten();
+                ticks += result.getTicks();
+            }
+            long[] latencies = latencies(e, ticks);
+            out.printf("%-32s %6d %8.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n", entrants.get(e).getName(), games,
+                    games == 0 ? 0.0 : (double) fruits / games, games == 0 ? 0.0 : (double) ticks / games,
+                    percentile(latencies, 50) / 1e3, percentile(latencies, 90) / 1e3,
+                    percentile(latencies, 99) / 1e3, percentile(latencies, 100) / 1e3);
+        }
+        out.println();
+        for (Pairing pairing : pairings) {
+            SPRT test = pairing.test;
+            String first = entrants.get(pairing.first).getName();
+            String second = entrants.get(pairing.second).getName();
+            String outcome;
+            switch (test.getDecision()) {
+                case FirstBetter:
+                    outcome = first + " is better";
+                    break;
+                case SecondBetter:
+                    outcome = second + " is better";
+                    break;
+                default:
+                    outcome = "undecided";
+                    break;
+            }
+            out.printf("%s vs %s: +%d -%d =%d, LLR %.2f [%.2f, %.2f] after %d seeds: %s%n", first, second,
+                    test.getWins(), test.getLosses(), test.getDraws(), test.getLogLikelihoodRatio(),
+                    test.getLowerBound(), test.getUpperBound(), test.getGames(), outcome);
+        }
+    }
+
+    /**
+     * Gathers the tick times of every game of an entrant, sorted.
+     */
+    private long[] latencies(int entrant, long ticks) {
+        long[] all = new long[(int) ticks];
+        int size = 0;
+        for (GameResult result : results[entrant]) {
+            if (result == null)
+                continue;
+            long[] nanos = result.getTickNanos();
+            System.arraycopy(nanos, 0, all, size, nanos.length);
+            size += nanos.length;
+        }
+        Arrays.sort(all);
+        return all;
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0)
+            return 0;
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank))];
+    }
+
+    /**
+     * Runs a tournament from the command line. Options: --seeds N (200),
+     * --ticks N (5000), --batch N (twice the number of cores), --alpha,
+     * --beta (0.05) and --delta (0.1), followed by two or more entrants as
+     * described in {@link Entrant#parse}. The seeds are 1 to N.
+     */
+    public static void main(String[] args) {
+        int seedCount = 200;
+        int maxTicks = 5000;
+        int batch = 2 * Runtime.getRuntime().availableProcessors();
+        double alpha = 0.05;
+        double beta = 0.05;
+        double delta = 0.1;
+        List<Entrant> entrants = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--seeds":
+                    seedCount = Integer.parseInt(args[++i]);
+                    break;
+                case "--ticks":
+                    maxTicks = Integer.parseInt(args[++i]);
+                    break;
+                case "--batch":
+                    batch = Integer.parseInt(args[++i]);
+                    break;
+                case "--alpha":
+                    alpha = Double.parseDouble(args[++i]);
+                    break;
+                case "--beta":
+                    beta = Double.parseDouble(args[++i]);
+                    break;
+                case "--delta":
+                    delta = Double.parseDouble(args[++i]);
+                    break;
+                default:
+                    entrants.add(Entrant.parse(args[i]));
+                    break;
+            }
+        }
+        if (entrants.isEmpty()) {
+            entrants.add(Entrant.parse("AStar"));
+            entrants.add(Entrant.parse("idAstar"));
+        }
+
+        long[] seeds = new long[seedCount];
+        for (int i = 0; i < seedCount; i++)
+            seeds[i] = i + 1;
+        Tournament tournament = new Tournament(entrants, seeds, maxTicks, alpha, beta, delta);
+        try (GameHost host = new GameHost()) {
+            tournament.run(host, batch);
+        }
+        tournament.printReport(System.out);
+    }
+}
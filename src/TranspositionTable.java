@@ -0,0 +1,118 @@
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The {@code TranspositionTable} class maps the Zobrist hash of a position to
+ * the MCTS node already holding it, so that move orders reaching the same
+ * position share one node and its statistics. The table has a fixed number
+ * of slots; when the few slots a hash may use are taken, the least visited
+ * node is forgotten (it stays in the tree, it just can not be found again).
+ * Nodes are indices into the {@link NodePool} passed to each call.
+ *
+ */
+public class TranspositionTable {
+
+    /**
+     * The number of consecutive slots searched for a hash.
+     */
+    private static final int PROBES = 4;
+
+    /**
+     * The stored nodes plus one, 0 marking an empty slot. An atomic array, so
+     * that threads sharing the tree always see fully built nodes.
+     */
+    private final AtomicIntegerArray slots;
+
+    /**
+     * The number of slots minus one (the slot count is a power of two).
+     */
+    private final int mask;
+
+    private final AtomicLong lookups = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * Creates a new, empty table.
+     * @param capacity The number of slots, rounded up to a power of two.
+     */
+    public TranspositionTable(int capacity) {
+        int size = Integer.highestOneBit(Math.max(PROBES, capacity - 1) << 1);
+        this.slots = new AtomicIntegerArray(size);
+        this.mask = size - 1;
+    }
+
+    private int index(long key) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+    /**
+     * Finds the node holding a position.
+     * @param nodes The pool holding the nodes.
+     * @param key The Zobrist hash of the position.
+     * @return The node, or NodePool.NONE if the position is not in the table.
+     */
+    public int get(NodePool nodes, long key) {
+        lookups.incrementAndGet();
+        int index = index(key);
+        for (int i = 0; i < PROBES; i++) {
+            int node = slots.get((index + i) & mask) - 1;
+            if (node != NodePool.NONE && nodes.getKey(node) == key) {
+                hits.incrementAndGet();
+                return node;
+            }
+        }
+        return NodePool.NONE;
+    }
+
+    /**
+     * Stores a node, replacing the least visited node if every slot for its
+     * hash is taken.
+     * @param nodes The pool holding the nodes.
+     * @param key The Zobrist hash of the node's position.
+     * @param node The node to store.
+     */
+    public void put(NodePool nodes, long key, int node) {
+        int index = index(key);
+        int victim = index;
+        int fewestVisits = Integer.MAX_VALUE;
+        for (int i = 0; i < PROBES; i++) {
+            int slot = (index + i) & mask;
+            int stored = slots.get(slot) - 1;
+            if (stored == NodePool.NONE || nodes.getKey(stored) == key) {
+                victim = slot;
+                break;
+            }
+            if (nodes.getVisits(stored) < fewestVisits) {
+                fewestVisits = nodes.getVisits(stored);
+                victim = slot;
+            }
+        }
+        slots.set(victim, node + 1);
+    }
+
+    /**
+     * Forgets every stored node. The lookup and hit counters keep counting.
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, 0);
+        }
+    }
+
+    public long getLookups() {
+        return lookups.get();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    /**
+     * Gets the share of lookups that found an existing node.
+     * @return The hit rate, between 0 and 1.
+     */
+    public double getHitRate() {
+        long total = lookups.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+}
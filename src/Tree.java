@@ -1,23 +1,40 @@
+/**
+ * The {@code Tree} class is one MCTS tree: the pool holding its nodes, the
+ * root node, and the game state at the root, which the states of all the
+ * other nodes are rebuilt from.
+ *
+ */
 public class Tree {
-    public Node root;
+    public final NodePool nodes;
+    public int root = NodePool.NONE;
+    public State rootState;
 
-    public Tree() {
-        root = new Node();
+    public Tree(NodePool nodes) {
+        this.nodes = nodes;
     }
 
-    public Tree(Node root) {
-        this.root = root;
+    /**
+     * Empties the pool and starts over with a single root node.
+     * @param rootState The game state at the new root.
+     */
+    public void reset(State rootState) {
+        nodes.reset();
+        this.rootState = rootState;
+        this.root = nodes.newNode(NodePool.NONE, 0, rootState.isAI, rootState.zobristKey());
     }
 
-    public Node getRoot() {
+    public int getRoot() {
         return root;
     }
 
-    public void setRoot(Node root) {
-        this.root = root;
+    /**
+     * Moves the root down to one of its children and plays the child's move
+     * on the root state. The nodes above the new root are left unreachable.
+     * @param child A child of the current root.
+     */
+    public void setRoot(int child) {
+        rootState.play(nodes.getMove(child));
+        nodes.detach(child);
+        root = child;
     }
-
-    public void addChild(Node parent, Node child) {
-        parent.childArray.add(child);
-    }
-}
\ No newline at end of file
+}
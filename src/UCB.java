@@ -1,26 +1,57 @@
-import java.util.Collections;
-import java.util.Comparator;
-
 public class UCB {
 
+    /**
+     * The score charged per pending visit when several threads share a tree,
+     * so that they spread over different branches.
+     */
+    static final double VIRTUAL_LOSS = -State.PLAYER_BOARD_WIN;
+
     public static double ucbValue(int totalVisit, double nodeWinScore, int nodeVisit) {
         if (nodeVisit == 0)
             return Integer.MAX_VALUE;
         return (nodeWinScore / (double) nodeVisit) + 1.41 * Math.sqrt(Math.log(totalVisit) / (double) nodeVisit);
     }
 
-    static Node findBestNodeWithUCB(Node node, boolean isAI) {
-        int parentVisit = node.state.visitCount;
-        if (isAI) {
-            return Collections.max(
-                    node.childArray,
-                    Comparator.comparing(c -> ucbValue(parentVisit, c.state.winScore, c.state.visitCount)));
-
-        } else {
-            return Collections.min(
-                    node.childArray,
-                    Comparator.comparing(c -> ucbValue(parentVisit, c.state.winScore, c.state.visitCount)));
+    /*
+     * Picks the child with the highest UCB value when the AI is to move, the
+     * lowest one when the player is. Ties go to the first child.
+     */
+    static int findBestNodeWithUCB(NodePool nodes, int node) {
+        boolean isAI = nodes.isAIToMove(node);
+        int parentVisit = nodes.getVisits(node);
+        int best = NodePool.NONE;
+        double bestValue = 0;
+        for (int i = 0; i < nodes.childCount(node); i++) {
+            int child = nodes.child(node, i);
+            double value = ucbValue(parentVisit, nodes.getScore(child), nodes.getVisits(child));
+            if (best == NodePool.NONE || (isAI ? value > bestValue : value < bestValue)) {
+                best = child;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
 
+    /*
+     * Same as findBestNodeWithUCB, but every thread currently below a child
+     * counts as an extra visit that went badly for the side choosing.
+     */
+    static int findBestNodeWithVirtualLoss(NodePool nodes, int node) {
+        boolean isAI = nodes.isAIToMove(node);
+        int parentVisit = nodes.getVisits(node) + nodes.getVirtualLoss(node);
+        double penalty = isAI ? -VIRTUAL_LOSS : VIRTUAL_LOSS;
+        int best = NodePool.NONE;
+        double bestValue = 0;
+        for (int i = 0; i < nodes.childCount(node); i++) {
+            int child = nodes.child(node, i);
+            int pending = nodes.getVirtualLoss(child);
+            double value = ucbValue(parentVisit, nodes.getScore(child) + pending * penalty,
+                    nodes.getVisits(child) + pending);
+            if (best == NodePool.NONE || (isAI ? value > bestValue : value < bestValue)) {
+                best = child;
+                bestValue = value;
+            }
         }
+        return best;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,91 @@
+import java.util.SplittableRandom;
+
+/**
+ * The {@code Zobrist} class holds the random keys used to hash game
+ * positions. A position hash is the XOR of the keys of its features, so it
+ * can be updated incrementally when a snake moves.
+ *
+ */
+public class Zobrist {
+
+    /**
+     * The seed of the key tables. Fixed so that hashes are the same in every run.
+     */
+    private static final long SEED = 0x5EED5A4EL;
+
+    /**
+     * The number of links a body cell may have to the segment in front of
+     * it: the four neighbours, and the cell itself for a tail that has not
+     * moved off its cell yet.
+     */
+    private static final int SIDES = 5;
+
+    /**
+     * One key per body cell and side of the segment in front of it. A body
+     * hashed by its links, rather than by its cells, depends on the order of
+     * the segments and not only on the cells they cover.
+     */
+    private static final long[] LINK = new long[Bitboard.CELL_COUNT * SIDES];
+
+    /**
+     * One key per cell for the head of a snake, where its links start.
+     */
+    static final long[] HEAD = new long[Bitboard.CELL_COUNT];
+
+    /**
+     * One key per cell for the fruit.
+     */
+    static final long[] FRUIT = new long[Bitboard.CELL_COUNT];
+
+    /**
+     * The key added when the AI snake is to move.
+     */
+    static final long AI_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        for (int i = 0; i < LINK.length; i++) {
+            LINK[i] = random.nextLong();
+        }
+        for (int i = 0; i < Bitboard.CELL_COUNT; i++) {
+            HEAD[i] = random.nextLong();
+            FRUIT[i] = random.nextLong();
+        }
+        AI_TO_MOVE = random.nextLong();
+    }
+
+    /**
+     * Gets the key of a body segment and the segment in front of it.
+     * @param cell The cell of the segment.
+     * @param next The cell of the segment one step closer to the head.
+     * @return The key of the link.
+     */
+    static long link(int cell, int next) {
+        int delta = next - cell;
+        int side;
+        if (delta == 1) {
+            side = 0;
+        } else if (delta == -1) {
+            side = 1;
+        } else if (delta == BoardPanel.COL_COUNT) {
+            side = 2;
+        } else if (delta == -BoardPanel.COL_COUNT) {
+            side = 3;
+        } else {
+            side = 4;
+        }
+        return LINK[cell * SIDES + side];
+    }
+
+    /**
+     * Scrambles a snake hash so that the same body gives a different key for
+     * the player snake than for the AI snake.
+     * @param key The hash of a snake.
+     * @return The scrambled hash.
+     */
+    static long mix(long key) {
+        key = (key ^ (key >>> 33)) * 0xff51afd7ed558ccdL;
+        key = (key ^ (key >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return key ^ (key >>> 33);
+    }
+}